@@ -1,5 +1,6 @@
 package com.campuscent;
 
+import com.campuscent.utils.AuthenticationHelper;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Scanner;
@@ -7,14 +8,25 @@ import java.time.format.DateTimeParseException;
 
 public class App {
     private static DatabaseHelper dbHelper;
+    private static LimitRebuilder limitRebuilder;
     private static Scanner scanner;
 
     public static void main(String[] args) {
         scanner = new Scanner(System.in);
 
+        // Choose the bcrypt cost: a fixed value if configured, otherwise the
+        // highest cost that hashes within the target time on this machine
+        String configuredCost = System.getProperty("campuscent.bcrypt.cost");
+        if (configuredCost != null) {
+            AuthenticationHelper.setCost(Integer.parseInt(configuredCost));
+        } else {
+            AuthenticationHelper.calibrateCost(AuthenticationHelper.DEFAULT_TARGET_MS);
+        }
+
         // Initialize the database
         dbHelper = new DatabaseHelper("campuscent.db");
         dbHelper.initializeDatabase();
+        limitRebuilder = new LimitRebuilder(dbHelper);
 
         // Start the application
         User user = welcomeAndAuthenticate();
@@ -32,6 +44,7 @@ public class App {
         }
 
         scanner.close();
+        dbHelper.close();
     }
 
     private static User welcomeAndAuthenticate() {
@@ -75,7 +88,7 @@ public class App {
             LoginController loginController = new LoginController(dbHelper);
             String sessionId = loginController.login(username, password);
 
-            if (sessionId != null && SessionManager.isSessionValid(sessionId)) {
+            if (sessionId != null && SessionStore.shared().isSessionValid(sessionId)) {
                 System.out.println("\nLogin successful! Welcome, " + username + "!");
                 return dbHelper.getUserByUsername(username);
             } else {
@@ -154,16 +167,21 @@ public class App {
         System.out.println("Loading your data...");
         user.loadTransactions(dbHelper);
 
-        TransactionSummary summary = new TransactionSummary(dbHelper);
+        // Restore this month's budget from the saved snapshot and the transactions after it
+        limitRebuilder.rebuild(user.getUsername(), user.getDynamicLimit());
+
+        // Seeds the running category totals and daily spend index used by the summary screens
+        CategorySummary summary = CategorySummary.live(dbHelper, user.getUsername());
+        dbHelper.getDailySpendIndex(user.getUsername());
         System.out.println("User Summary:");
-        System.out.println(" - Total Income: GHC" + String.format("%.2f", summary.getTotalIncome(user)));
-        System.out.println(" - Total Expenses: GHC" + String.format("%.2f", summary.getTotalExpenses(user)));
+        System.out.println(" - Total Income: GHC" + String.format("%.2f", summary.getTotalIncome()));
+        System.out.println(" - Total Expenses: GHC" + String.format("%.2f", summary.getTotalExpenses()));
 
         System.out.println("\nIncome Breakdown by Category:");
-        summary.displayIncomeByCategory(user.getUsername());
+        summary.displayIncomeByCategory();
 
         System.out.println("\nExpense Breakdown by Category:");
-        summary.displayExpensesByCategory(user.getUsername());
+        summary.displayExpensesByCategory();
 
         List<Goal> userGoals = dbHelper.getGoals(user.getUsername());
         if (!userGoals.isEmpty()) {
@@ -239,9 +257,10 @@ public class App {
 
         // Log the income transaction in the database
         dbHelper.logTransaction(user, income);
+        limitRebuilder.onTransactionLogged(user.getUsername(), user.getDynamicLimit());
 
         // Allocation amounts
-        double newSpendingAllocation = incomeAmount * 0.70;   // 70% for spending
+        double newSpendingAllocation = incomeAmount * DynamicLimit.SPENDING_SHARE;   // 70% for spending
         double savingAndInvestmentAllocation = incomeAmount * 0.30; // 30% for savings/investment
 
         // Update DynamicLimit for spending
@@ -292,6 +311,7 @@ public class App {
 
         Expense expense = new Expense(expenseAmount, LocalDate.now(), expenseCategory);
         dbHelper.logTransaction(user, expense);
+        limitRebuilder.onTransactionLogged(user.getUsername(), user.getDynamicLimit());
 
         // Update DynamicLimit with the new expense
         DynamicLimit dynamicLimit = user.getDynamicLimit();
@@ -372,15 +392,21 @@ public class App {
     }
 
     private static void viewTransactionSummary(User user) {
-        TransactionSummary summary = new TransactionSummary(dbHelper);
-        System.out.println("Total Income: GHC" + String.format("%.2f", summary.getTotalIncome(user)));
-        System.out.println("Total Expenses: GHC" + String.format("%.2f", summary.getTotalExpenses(user)));
+        CategorySummary summary = CategorySummary.live(dbHelper, user.getUsername());
+        System.out.println("Total Income: GHC" + String.format("%.2f", summary.getTotalIncome()));
+        System.out.println("Total Expenses: GHC" + String.format("%.2f", summary.getTotalExpenses()));
 
         System.out.println("\nIncome Breakdown by Category:");
-        summary.displayIncomeByCategory(user.getUsername());
+        summary.displayIncomeByCategory();
 
         System.out.println("\nExpense Breakdown by Category:");
-        summary.displayExpensesByCategory(user.getUsername());
+        summary.displayExpensesByCategory();
+
+        DailySpendIndex spendIndex = dbHelper.getDailySpendIndex(user.getUsername());
+        System.out.println("\nSpent in the last 7 days: GHC"
+                + String.format("%.2f", FinancialEntry.fromMinorUnits(spendIndex.getSpendLastDaysMinor(7))));
+        System.out.println("Spent in the last 30 days: GHC"
+                + String.format("%.2f", FinancialEntry.fromMinorUnits(spendIndex.getSpendLastDaysMinor(30))));
     }
 
     private static void setFinancialGoals(User user) {
@@ -0,0 +1,129 @@
+package com.campuscent.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Small, bounded thread pool for bcrypt work. A burst of logins queues here
+// (up to a limit) instead of taking every core, and a caller that waits too
+// long gives up rather than piling on. Tasks beyond the queue limit are
+// rejected straight away.
+public class AuthenticationExecutor {
+    public static final int DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    public static final int DEFAULT_QUEUE_LIMIT = 64;
+    public static final long DEFAULT_TIMEOUT_MS = 5000;
+
+    // Thrown when a task is rejected because the queue is full, or times out
+    public static class BusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BusyException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private static volatile AuthenticationExecutor shared;
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public AuthenticationExecutor(int threads, int queueLimit, long timeoutMs) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), task -> {
+                    Thread thread = new Thread(task, "campuscent-auth-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.timeoutMs = timeoutMs;
+    }
+
+    // Executor used by AuthenticationHelper, created with the defaults on first use
+    public static AuthenticationExecutor shared() {
+        AuthenticationExecutor executor = shared;
+        if (executor == null) {
+            synchronized (AuthenticationExecutor.class) {
+                executor = shared;
+                if (executor == null) {
+                    executor = new AuthenticationExecutor(DEFAULT_THREADS, DEFAULT_QUEUE_LIMIT, DEFAULT_TIMEOUT_MS);
+                    shared = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    // Replace the shared executor, e.g. with settings suited to a load test
+    public static synchronized void configure(int threads, int queueLimit, long timeoutMs) {
+        AuthenticationExecutor previous = shared;
+        shared = new AuthenticationExecutor(threads, queueLimit, timeoutMs);
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    // Run a task and wait for its result, for at most the configured timeout
+    public <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new BusyException("Too many authentication requests in progress.", e);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new BusyException("Authentication timed out after " + timeoutMs + "ms.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusyException("Interrupted while waiting for authentication.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // Run a task in the background if there is room; returns false if it was dropped
+    public boolean tryExecute(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
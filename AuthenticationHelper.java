@@ -2,13 +2,74 @@ package com.campuscent.utils;
 import org.mindrot.jbcrypt.BCrypt;
 
 public class AuthenticationHelper {
-    // Method to hash a password using BCrypt
+    public static final int DEFAULT_COST = 10; // Same as BCrypt.gensalt()
+    public static final int MIN_COST = 10;
+    public static final int MAX_COST = 16;
+    public static final long DEFAULT_TARGET_MS = 250;
+
+    private static volatile int cost = DEFAULT_COST;
+
+    // Method to hash a password using BCrypt at the configured cost
     public static String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
     }
 
-    // Method to verify a password against a hashed password
+    // Method to verify a password against a hashed password. The check runs on the
+    // shared AuthenticationExecutor and throws AuthenticationExecutor.BusyException
+    // if it cannot be queued or does not finish in time.
     public static boolean verifyPassword(String password, String hashedPassword) {
-        return BCrypt.checkpw(password, hashedPassword);
+        return AuthenticationExecutor.shared().call(() -> BCrypt.checkpw(password, hashedPassword));
+    }
+
+    public static int getCost() {
+        return cost;
+    }
+
+    public static void setCost(int newCost) {
+        if (newCost < 4 || newCost > 31) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31, got " + newCost);
+        }
+        cost = newCost;
+    }
+
+    // Pick the highest cost (between MIN_COST and MAX_COST) whose hash takes no
+    // longer than targetMillis on this machine, and use it for new hashes.
+    // Each step doubles the work, so calibrating takes about twice the target.
+    public static int calibrateCost(long targetMillis) {
+        int chosen = MIN_COST;
+        for (int candidate = MIN_COST; candidate <= MAX_COST; candidate++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", BCrypt.gensalt(candidate));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = candidate;
+        }
+        cost = chosen;
+        return chosen;
+    }
+
+    // Cost a hash was created with, read from its "$2a$NN$" prefix; -1 if unreadable
+    public static int getCost(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int end = hashedPassword.indexOf('$', 1);
+        if (end < 0 || end + 3 > hashedPassword.length() || hashedPassword.charAt(end + 3) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hashedPassword.substring(end + 1, end + 3));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // True when a hash was made at a lower cost than the current one and should be
+    // replaced the next time the plain password is known (i.e. at login)
+    public static boolean needsRehash(String hashedPassword) {
+        int hashCost = getCost(hashedPassword);
+        return hashCost >= 0 && hashCost < cost;
     }
 }
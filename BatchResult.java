@@ -0,0 +1,85 @@
+package com.campuscent;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk insert: which rows were written and which were rejected,
+// by their position in the input
+public class BatchResult {
+    private int inserted;
+    private final BitSet insertedRows = new BitSet();
+    private final BitSet failedRows = new BitSet();
+    private final List<Failure> failures = new ArrayList<>();
+
+    void recordInserted(int index) {
+        inserted++;
+        insertedRows.set(index);
+    }
+
+    void recordFailure(int index, FinancialEntry entry, String reason) {
+        failures.add(new Failure(index, entry, reason));
+        failedRows.set(index);
+    }
+
+    // True only for rows confirmed as committed
+    public boolean isInserted(int index) {
+        return insertedRows.get(index);
+    }
+
+    // True once a row has been either inserted or rejected
+    boolean isRecorded(int index) {
+        return insertedRows.get(index) || failedRows.get(index);
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public void printSummary() {
+        System.out.println("Batch import complete:");
+        System.out.println(" - Inserted: " + inserted);
+        System.out.println(" - Failed: " + failures.size());
+        for (Failure failure : failures) {
+            System.out.println("   Row " + failure.getIndex() + ": " + failure.getReason());
+        }
+    }
+
+    // A single rejected row, identified by its position in the input
+    public static class Failure {
+        private final int index;
+        private final FinancialEntry entry;
+        private final String reason;
+
+        Failure(int index, FinancialEntry entry, String reason) {
+            this.index = index;
+            this.entry = entry;
+            this.reason = reason;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public FinancialEntry getEntry() {
+            return entry;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
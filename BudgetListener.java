@@ -0,0 +1,36 @@
+package com.campuscent;
+
+// Receives budget events from DynamicLimit and Goal. Events are plain method
+// calls with primitive arguments, so raising one allocates nothing; only a
+// listener that wants text (ConsoleBudgetListener) formats anything. Every
+// method does nothing by default, so a listener implements only what it needs.
+public interface BudgetListener {
+
+    // Today's spending went over today's effective limit (base plus carryover)
+    default void onOverspentToday(double overspentAmount) {
+    }
+
+    // A spend left today's spending within today's effective limit
+    default void onUnderspentToday() {
+    }
+
+    // Total spending for the month is over the monthly allocation
+    default void onMonthlyLimitExceeded(double overspentAmount) {
+    }
+
+    // A day was closed; a negative carryover reduces tomorrow's limit
+    default void onCarryoverComputed(double carryover) {
+    }
+
+    // A day was closed on the last day of the month
+    default void onMonthEnded() {
+    }
+
+    // The monthly allocation changed and the daily limit was recalculated
+    default void onLimitUpdated(double totalLimit, int remainingDays, double dailyLimit) {
+    }
+
+    // A savings goal's progress reached its target
+    default void onGoalReached(double targetAmount) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.campuscent;
+
+import java.util.Arrays;
+
+// Copy-on-write set of listeners. Adding or removing copies the array, which
+// is rare; raising an event just loops over get(), with no iterator and no
+// lock, and costs nothing when the array is empty.
+public final class BudgetListenerList {
+    private static final BudgetListener[] NONE = new BudgetListener[0];
+
+    private volatile BudgetListener[] listeners = NONE;
+
+    public synchronized void add(BudgetListener listener) {
+        for (BudgetListener existing : listeners) {
+            if (existing == listener) {
+                return;
+            }
+        }
+        BudgetListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void remove(BudgetListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                BudgetListener[] updated = new BudgetListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+                listeners = updated.length == 0 ? NONE : updated;
+                return;
+            }
+        }
+    }
+
+    public boolean contains(BudgetListener listener) {
+        for (BudgetListener existing : listeners) {
+            if (existing == listener) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Current listeners; callers must not modify the array
+    public BudgetListener[] get() {
+        return listeners;
+    }
+}
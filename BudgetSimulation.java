@@ -0,0 +1,186 @@
+package com.campuscent;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Runs a month of DynamicLimit budgeting for many synthetic students at once,
+// on a simulated clock, so a policy change (e.g. a different spending share)
+// can be judged in seconds instead of a real month. Each student gets one
+// income on day 1 and a random number of purchases every day; their limit has
+// no listeners, and students are split across cores with fork/join. Results are
+// reproducible for a given seed.
+public class BudgetSimulation {
+    private static final int STUDENTS_PER_TASK = 256;
+
+    private int students = 10_000;
+    private YearMonth month = YearMonth.now();
+    private double meanIncome = 1500;
+    private double incomeSpread = 0.3; // Standard deviation as a fraction of the mean
+    private double spendingShare = DynamicLimit.SPENDING_SHARE;
+    private double spendRatio = 1.0; // Average daily spending relative to the base daily limit
+    private double spendVolatility = 0.6; // Day-to-day variation in spending, as a fraction
+    private int maxPurchasesPerDay = 4;
+    private long seed = 42;
+
+    public BudgetSimulation students(int students) {
+        this.students = students;
+        return this;
+    }
+
+    public BudgetSimulation month(YearMonth month) {
+        this.month = month;
+        return this;
+    }
+
+    public BudgetSimulation income(double meanIncome, double incomeSpread) {
+        this.meanIncome = meanIncome;
+        this.incomeSpread = incomeSpread;
+        return this;
+    }
+
+    public BudgetSimulation spendingShare(double spendingShare) {
+        this.spendingShare = spendingShare;
+        return this;
+    }
+
+    public BudgetSimulation spending(double spendRatio, double spendVolatility, int maxPurchasesPerDay) {
+        this.spendRatio = spendRatio;
+        this.spendVolatility = spendVolatility;
+        this.maxPurchasesPerDay = maxPurchasesPerDay;
+        return this;
+    }
+
+    public BudgetSimulation seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SimulationReport run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    public SimulationReport run(ForkJoinPool pool) {
+        long[] finalCarryoverMinor = new long[students];
+        long[] overspentMinor = new long[students];
+        int[] daysOverspent = new int[students];
+
+        long start = System.nanoTime();
+        pool.invoke(new Slice(0, students, finalCarryoverMinor, overspentMinor, daysOverspent));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        return new SimulationReport(month, finalCarryoverMinor, overspentMinor, daysOverspent, elapsedMillis);
+    }
+
+    // Simulate one student's month; results are written at index student
+    private void simulate(int student, long[] finalCarryoverMinor, long[] overspentMinor, int[] daysOverspent) {
+        SplittableRandom random = new SplittableRandom(seed * 1_000_003L + student);
+        SimulatedClock clock = new SimulatedClock(month.atDay(1));
+        DynamicLimit limit = new DynamicLimit(clock);
+        limit.setQuiet(true);
+
+        double income = Math.max(0, meanIncome * (1 + incomeSpread * random.nextGaussian()));
+        limit.initializeLimit(0);
+        limit.updateLimit(income * spendingShare);
+        double baseDaily = income * spendingShare / month.lengthOfMonth();
+
+        int overspentDays = 0;
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            clock.setDate(month.atDay(day));
+            int purchases = random.nextInt(maxPurchasesPerDay + 1);
+            if (purchases == 0) {
+                limit.spend(0); // Still close the previous day so its allowance carries over
+                continue;
+            }
+            double dayTotal = Math.max(0, baseDaily * spendRatio * (1 + spendVolatility * random.nextGaussian()));
+            for (int p = 0; p < purchases; p++) {
+                limit.spend(Math.round(dayTotal / purchases * 100) / 100.0);
+            }
+            if (limit.getDailyLimit() < 0) {
+                overspentDays++;
+            }
+        }
+        limit.endDay(); // Close the last day so its carryover is counted
+
+        finalCarryoverMinor[student] = FinancialEntry.toMinorUnits(limit.getCarryover());
+        overspentMinor[student] = Math.max(0, FinancialEntry.toMinorUnits(limit.getSpent() - limit.getTotalLimit()));
+        daysOverspent[student] = overspentDays;
+    }
+
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final long[] finalCarryoverMinor;
+        private final long[] overspentMinor;
+        private final int[] daysOverspent;
+
+        Slice(int from, int to, long[] finalCarryoverMinor, long[] overspentMinor, int[] daysOverspent) {
+            this.from = from;
+            this.to = to;
+            this.finalCarryoverMinor = finalCarryoverMinor;
+            this.overspentMinor = overspentMinor;
+            this.daysOverspent = daysOverspent;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= STUDENTS_PER_TASK) {
+                for (int student = from; student < to; student++) {
+                    simulate(student, finalCarryoverMinor, overspentMinor, daysOverspent);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(from, mid, finalCarryoverMinor, overspentMinor, daysOverspent),
+                    new Slice(mid, to, finalCarryoverMinor, overspentMinor, daysOverspent));
+        }
+    }
+
+    // Clock that stays on a given date until moved, one per simulated student.
+    // Safe to move from one thread while others read it. withZone gives a view
+    // that shares the same instant, so moving this clock moves the view too.
+    static final class SimulatedClock extends Clock {
+        private final SimulatedClock source; // Clock whose instant this one reports; itself unless a zone view
+        private final ZoneId zone;
+        private volatile Instant now;
+
+        SimulatedClock(LocalDate date) {
+            this.source = this;
+            this.zone = ZoneOffset.UTC;
+            setDate(date);
+        }
+
+        private SimulatedClock(SimulatedClock source, ZoneId zone) {
+            this.source = source;
+            this.zone = zone;
+        }
+
+        // Move to the start of the given day (UTC)
+        void setDate(LocalDate date) {
+            source.now = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return zone.equals(this.zone) ? this : new SimulatedClock(source, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return source.now;
+        }
+    }
+}
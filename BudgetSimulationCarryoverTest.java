@@ -0,0 +1,41 @@
+package com.campuscent;
+
+import java.time.YearMonth;
+
+// Check for BudgetSimulation: a student who buys nothing all month must end
+// it with the whole allocation carried over, which only holds if days with no
+// purchases are still closed. Exits non-zero on a mismatch.
+//
+//   java com.campuscent.BudgetSimulationCarryoverTest
+public class BudgetSimulationCarryoverTest {
+    public static void main(String[] args) {
+        boolean ok = true;
+        for (YearMonth month : new YearMonth[] {YearMonth.of(2026, 2), YearMonth.of(2026, 3)}) {
+            ok &= check(month);
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean check(YearMonth month) {
+        double income = 1500;
+        double allocation = income * DynamicLimit.SPENDING_SHARE;
+        SimulationReport report = new BudgetSimulation()
+                .students(1_000)
+                .month(month)
+                .income(income, 0)
+                .spending(0, 0, 0) // No purchases on any day
+                .run();
+
+        // Each day's share is rounded to the pesewa when it carries over
+        double tolerance = 0.01 * month.lengthOfMonth();
+        double lowest = report.getCarryoverPercentile(0);
+        double highest = report.getCarryoverPercentile(100);
+        boolean ok = Math.abs(lowest - allocation) <= tolerance && Math.abs(highest - allocation) <= tolerance
+                && report.getOverspendRate() == 0;
+
+        System.out.println("No-spend month " + month + ": carryover GHC" + String.format("%.2f", lowest)
+                + " to GHC" + String.format("%.2f", highest) + ", allocation GHC" + String.format("%.2f", allocation)
+                + (ok ? " (ok)" : " (MISMATCH)"));
+        return ok;
+    }
+}
@@ -1,4 +1,5 @@
 package com.campuscent;
+// Stored by ordinal in the Transactions table: only add new values at the end
 public enum Category {
     FOOD,
     TRANSPORTATION,
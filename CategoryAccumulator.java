@@ -0,0 +1,182 @@
+package com.campuscent;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Running per-category totals for one user, by month and for all time.
+// Seeded once from the database at login and then updated on every logged
+// entry, so summaries and limit checks are array lookups with no query.
+// Totals are indexed by TransactionType ordinal and category ordinal, and
+// months sit in a dense array indexed by months since the first one seen.
+public class CategoryAccumulator {
+    private static final int TYPES = TransactionType.values().length;
+    private static final int CATEGORIES = Math.max(Category.values().length, IncomeCategory.values().length);
+
+    // sum, count, min and max for every (type, category) slot
+    private static final class Totals {
+        private final long[] sum = new long[TYPES * CATEGORIES];
+        private final long[] count = new long[TYPES * CATEGORIES];
+        private final long[] min = new long[TYPES * CATEGORIES];
+        private final long[] max = new long[TYPES * CATEGORIES];
+
+        void add(int slot, long sumMinor, int entries, long minMinor, long maxMinor) {
+            if (count[slot] == 0) {
+                min[slot] = minMinor;
+                max[slot] = maxMinor;
+            } else {
+                min[slot] = Math.min(min[slot], minMinor);
+                max[slot] = Math.max(max[slot], maxMinor);
+            }
+            sum[slot] += sumMinor;
+            count[slot] += entries;
+        }
+
+        long typeTotal(int type) {
+            long total = 0;
+            for (int category = 0; category < CATEGORIES; category++) {
+                total += sum[type * CATEGORIES + category];
+            }
+            return total;
+        }
+    }
+
+    private final Totals allTime = new Totals();
+    private Totals[] months = new Totals[0]; // null for months with no entries
+    private int firstMonth;                  // Month index (year * 12 + month - 1) of months[0]
+    private final Clock clock; // Decides which month is "current"
+
+    public CategoryAccumulator() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public CategoryAccumulator(Clock clock) {
+        this.clock = clock;
+    }
+
+    // Build an accumulator from monthly totals, e.g. LedgerStore.getMonthlyCategoryTotals
+    public static CategoryAccumulator seed(List<CategoryTotal> monthlyTotals) {
+        return seed(monthlyTotals, Clock.systemDefaultZone());
+    }
+
+    public static CategoryAccumulator seed(List<CategoryTotal> monthlyTotals, Clock clock) {
+        CategoryAccumulator accumulator = new CategoryAccumulator(clock);
+        for (CategoryTotal total : monthlyTotals) {
+            int slot = slot(total.getType().ordinal(), total.getCategoryCode());
+            long min = total.getMinMinor();
+            long max = total.getMaxMinor();
+            accumulator.month(monthIndex(total.getMonth())).add(slot, total.getSumMinor(), total.getCount(), min, max);
+            accumulator.allTime.add(slot, total.getSumMinor(), total.getCount(), min, max);
+        }
+        return accumulator;
+    }
+
+    // Add one logged entry to its month and to the all-time totals
+    public synchronized void record(FinancialEntry entry) {
+        int category = entry instanceof Expense
+                ? ((Expense) entry).getCategory().ordinal()
+                : ((Income) entry).getCategory().ordinal();
+        int slot = slot(TransactionType.of(entry).ordinal(), category);
+        long amount = entry.getAmountMinor();
+
+        LocalDate date = entry.getDate();
+        month(date.getYear() * 12 + date.getMonthValue() - 1).add(slot, amount, 1, amount, amount);
+        allTime.add(slot, amount, 1, amount, amount);
+    }
+
+    // Total of one type in a month, in pesewas
+    public synchronized long getMonthTotalMinor(YearMonth month, TransactionType type) {
+        Totals totals = find(month);
+        return totals == null ? 0 : totals.typeTotal(type.ordinal());
+    }
+
+    // All-time total of one type, in pesewas
+    public synchronized long getTotalMinor(TransactionType type) {
+        return allTime.typeTotal(type.ordinal());
+    }
+
+    public synchronized long getSumMinor(YearMonth month, TransactionType type, int categoryCode) {
+        Totals totals = find(month);
+        return totals == null ? 0 : totals.sum[slot(type.ordinal(), categoryCode)];
+    }
+
+    public synchronized int getCount(YearMonth month, TransactionType type, int categoryCode) {
+        Totals totals = find(month);
+        return totals == null ? 0 : (int) totals.count[slot(type.ordinal(), categoryCode)];
+    }
+
+    // Total spent in the current month, for limit checks
+    public long getCurrentMonthExpensesMinor() {
+        return getMonthTotalMinor(YearMonth.now(clock), TransactionType.EXPENSE);
+    }
+
+    // Category totals for one month, or for all time when month is null
+    public synchronized List<CategoryTotal> getTotals(YearMonth month) {
+        Totals totals = month == null ? allTime : find(month);
+        List<CategoryTotal> result = new ArrayList<>();
+        if (totals != null) {
+            addTotals(result, totals, month);
+        }
+        return result;
+    }
+
+    // Category totals for every month that has entries, oldest first
+    public synchronized List<CategoryTotal> getMonthlyTotals() {
+        List<CategoryTotal> result = new ArrayList<>();
+        for (int i = 0; i < months.length; i++) {
+            if (months[i] != null) {
+                int index = firstMonth + i;
+                addTotals(result, months[i], YearMonth.of(Math.floorDiv(index, 12), Math.floorMod(index, 12) + 1));
+            }
+        }
+        return result;
+    }
+
+    private static void addTotals(List<CategoryTotal> result, Totals totals, YearMonth month) {
+        TransactionType[] types = TransactionType.values();
+        for (int slot = 0; slot < totals.count.length; slot++) {
+            if (totals.count[slot] > 0) {
+                result.add(new CategoryTotal(types[slot / CATEGORIES], slot % CATEGORIES, month,
+                        totals.sum[slot], (int) totals.count[slot], totals.min[slot], totals.max[slot]));
+            }
+        }
+    }
+
+    private Totals find(YearMonth month) {
+        int offset = monthIndex(month) - firstMonth;
+        return offset < 0 || offset >= months.length ? null : months[offset];
+    }
+
+    // Totals for a month index, widening the array when the month falls
+    // before the first one or past the end
+    private Totals month(int index) {
+        if (months.length == 0) {
+            months = new Totals[12];
+            firstMonth = index;
+        } else if (index < firstMonth) {
+            int shift = firstMonth - index;
+            Totals[] widened = new Totals[months.length + Math.max(shift, 12)];
+            System.arraycopy(months, 0, widened, widened.length - months.length, months.length);
+            firstMonth -= widened.length - months.length;
+            months = widened;
+        } else if (index - firstMonth >= months.length) {
+            months = Arrays.copyOf(months, Math.max(months.length * 2, index - firstMonth + 1));
+        }
+        int offset = index - firstMonth;
+        if (months[offset] == null) {
+            months[offset] = new Totals();
+        }
+        return months[offset];
+    }
+
+    private static int slot(int type, int category) {
+        return type * CATEGORIES + category;
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+}
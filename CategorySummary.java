@@ -0,0 +1,78 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Income and expense totals by category, computed by SQLite with GROUP BY so
+// no individual transactions are loaded to build the summary
+public class CategorySummary {
+    private final List<CategoryTotal> totals;
+    private final long incomeMinor;
+    private final long expensesMinor;
+
+    public CategorySummary(List<CategoryTotal> totals) {
+        this.totals = totals;
+        long income = 0;
+        long expenses = 0;
+        for (CategoryTotal total : totals) {
+            if (total.getType() == TransactionType.INCOME) {
+                income += total.getSumMinor();
+            } else {
+                expenses += total.getSumMinor();
+            }
+        }
+        this.incomeMinor = income;
+        this.expensesMinor = expenses;
+    }
+
+    // Summary of the user's whole history
+    public static CategorySummary load(LedgerStore dbHelper, String username) {
+        return load(dbHelper, username, null, null);
+    }
+
+    // Summary of transactions dated between from and to (inclusive); null means unbounded
+    public static CategorySummary load(LedgerStore dbHelper, String username, LocalDate from, LocalDate to) {
+        return new CategorySummary(dbHelper.getCategoryTotals(username, from, to));
+    }
+
+    // Summary of the user's whole history from the live running totals, without a query
+    public static CategorySummary live(LedgerStore dbHelper, String username) {
+        return new CategorySummary(dbHelper.getCategoryAccumulator(username).getTotals(null));
+    }
+
+    public double getTotalIncome() {
+        return FinancialEntry.fromMinorUnits(incomeMinor);
+    }
+
+    public double getTotalExpenses() {
+        return FinancialEntry.fromMinorUnits(expensesMinor);
+    }
+
+    public List<CategoryTotal> getTotals() {
+        return totals;
+    }
+
+    public void displayIncomeByCategory() {
+        display(TransactionType.INCOME);
+    }
+
+    public void displayExpensesByCategory() {
+        display(TransactionType.EXPENSE);
+    }
+
+    private void display(TransactionType type) {
+        boolean any = false;
+        for (CategoryTotal total : totals) {
+            if (total.getType() != type) {
+                continue;
+            }
+            any = true;
+            System.out.println(" - " + total.getCategoryName() + ": GHC" + String.format("%.2f", total.getSum())
+                    + " (" + total.getCount() + (total.getCount() == 1 ? " entry" : " entries")
+                    + ", avg GHC" + String.format("%.2f", total.getAverage()) + ")");
+        }
+        if (!any) {
+            System.out.println(" - No " + type.getLabel().toLowerCase() + " recorded.");
+        }
+    }
+}
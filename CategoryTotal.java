@@ -0,0 +1,85 @@
+package com.campuscent;
+
+import java.time.YearMonth;
+
+// Aggregate of one user's transactions for a single type and category,
+// optionally restricted to one month. Amounts are in pesewas.
+public class CategoryTotal {
+    private final TransactionType type;
+    private final int categoryCode;
+    private final YearMonth month;
+    private final long sumMinor;
+    private final int count;
+    private final long minMinor;
+    private final long maxMinor;
+
+    public CategoryTotal(TransactionType type, int categoryCode, YearMonth month,
+                         long sumMinor, int count, long minMinor, long maxMinor) {
+        this.type = type;
+        this.categoryCode = categoryCode;
+        this.month = month;
+        this.sumMinor = sumMinor;
+        this.count = count;
+        this.minMinor = minMinor;
+        this.maxMinor = maxMinor;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public int getCategoryCode() {
+        return categoryCode;
+    }
+
+    // Expense category, or null for income rows
+    public Category getCategory() {
+        return type == TransactionType.EXPENSE ? Category.values()[categoryCode] : null;
+    }
+
+    // Income category, or null for expense rows
+    public IncomeCategory getIncomeCategory() {
+        return type == TransactionType.INCOME ? IncomeCategory.values()[categoryCode] : null;
+    }
+
+    public String getCategoryName() {
+        return type == TransactionType.EXPENSE ? getCategory().name() : getIncomeCategory().name();
+    }
+
+    // Month covered by this total, or null when it spans the whole query window
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public double getSum() {
+        return FinancialEntry.fromMinorUnits(sumMinor);
+    }
+
+    public long getSumMinor() {
+        return sumMinor;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return FinancialEntry.fromMinorUnits(minMinor);
+    }
+
+    public double getMax() {
+        return FinancialEntry.fromMinorUnits(maxMinor);
+    }
+
+    public long getMinMinor() {
+        return minMinor;
+    }
+
+    public long getMaxMinor() {
+        return maxMinor;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : FinancialEntry.fromMinorUnits(sumMinor) / count;
+    }
+}
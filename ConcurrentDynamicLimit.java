@@ -0,0 +1,229 @@
+package com.campuscent;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// DynamicLimit that several sessions or devices can spend against at once
+// without locks. Amounts are fixed-point pesewas. The month total is an
+// AtomicLong; everything tied to the current day (date, allocation, carryover
+// and today's spending) lives in one immutable Day that is replaced by
+// compare-and-set. A spend that notices the date has changed closes the old
+// day and opens the new one in the same CAS, so the rollover happens exactly
+// once and no spend is counted against the wrong day or lost.
+public class ConcurrentDynamicLimit extends DynamicLimit {
+
+    private static final class Day {
+        final LocalDate date;
+        final int currentDay;
+        final int totalDays;
+        final long totalLimitMinor;
+        final long dailyLimitMinor;
+        final long carryoverMinor;
+        final long dailySpentMinor;
+
+        Day(LocalDate date, int currentDay, int totalDays, long totalLimitMinor,
+            long dailyLimitMinor, long carryoverMinor, long dailySpentMinor) {
+            this.date = date;
+            this.currentDay = currentDay;
+            this.totalDays = totalDays;
+            this.totalLimitMinor = totalLimitMinor;
+            this.dailyLimitMinor = dailyLimitMinor;
+            this.carryoverMinor = carryoverMinor;
+            this.dailySpentMinor = dailySpentMinor;
+        }
+
+        Day withSpent(long amountMinor) {
+            return new Day(date, currentDay, totalDays, totalLimitMinor, dailyLimitMinor, carryoverMinor,
+                    dailySpentMinor + amountMinor);
+        }
+
+        // Same rules as DynamicLimit.endDay: whatever is left of today's effective
+        // limit (or the overspend, as a negative amount) carries over to tomorrow
+        Day next(LocalDate newDate) {
+            long carryover = dailyLimitMinor + carryoverMinor - dailySpentMinor;
+            int day = currentDay < totalDays ? currentDay + 1 : currentDay;
+            return new Day(newDate, day, totalDays, totalLimitMinor, dailyLimitMinor, carryover, 0);
+        }
+    }
+
+    private final AtomicReference<Day> today;
+    private final AtomicLong spentMinor = new AtomicLong();
+
+    public ConcurrentDynamicLimit() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public ConcurrentDynamicLimit(Clock clock) {
+        super(clock);
+        today = new AtomicReference<>(new Day(null, 1, 0, 0, 0, 0, 0));
+    }
+
+    @Override
+    public void initializeLimit(double monthlySpendingAllocation) {
+        LocalDate now = LocalDate.now(getClock());
+        int totalDays = YearMonth.from(now).lengthOfMonth();
+        long totalLimitMinor = FinancialEntry.toMinorUnits(monthlySpendingAllocation);
+        today.set(new Day(now, now.getDayOfMonth(), totalDays, totalLimitMinor, totalLimitMinor / totalDays, 0, 0));
+        spentMinor.set(0);
+    }
+
+    @Override
+    public void restore(LimitSnapshot snapshot) {
+        LocalDate date = snapshot.getCurrentDate() != null ? snapshot.getCurrentDate() : LocalDate.now(getClock());
+        today.set(new Day(date, snapshot.getCurrentDay(), snapshot.getTotalDays(), snapshot.getTotalLimitMinor(),
+                snapshot.getDailyLimitMinor(), snapshot.getCarryoverMinor(), snapshot.getDailySpentMinor()));
+        spentMinor.set(snapshot.getSpentMinor());
+    }
+
+    @Override
+    public void spend(double amount) {
+        long amountMinor = FinancialEntry.toMinorUnits(amount);
+        Day closed = null;
+        Day updated;
+        while (true) {
+            Day current = today.get();
+            LocalDate date = LocalDate.now(getClock());
+            Day base = current;
+            if (!date.equals(current.date)) {
+                base = current.next(date); // The date changed; close the old day in the same step
+            }
+            updated = base.withSpent(amountMinor);
+            if (today.compareAndSet(current, updated)) {
+                closed = base != current ? current : null;
+                break;
+            }
+        }
+        long spent = spentMinor.addAndGet(amountMinor);
+
+        BudgetListener[] listeners = getListeners();
+        if (listeners.length == 0) {
+            return;
+        }
+        if (closed != null) {
+            notifyEndOfDay(listeners, closed, updated);
+        }
+        long effectiveDailyLimit = updated.dailyLimitMinor + updated.carryoverMinor;
+        for (BudgetListener listener : listeners) {
+            if (updated.dailySpentMinor > effectiveDailyLimit) {
+                listener.onOverspentToday(FinancialEntry.fromMinorUnits(updated.dailySpentMinor - effectiveDailyLimit));
+            } else {
+                listener.onUnderspentToday();
+            }
+            if (spent > updated.totalLimitMinor) {
+                listener.onMonthlyLimitExceeded(FinancialEntry.fromMinorUnits(spent - updated.totalLimitMinor));
+            }
+        }
+    }
+
+    @Override
+    public void adjustForSavings(double amount) {
+        long amountMinor = FinancialEntry.toMinorUnits(amount);
+        spentMinor.getAndUpdate(spent -> Math.max(0, spent - amountMinor));
+    }
+
+    // Close the current day now, keeping the same date, as DynamicLimit.endDay does
+    @Override
+    public void endDay() {
+        Day current;
+        Day next;
+        do {
+            current = today.get();
+            next = current.next(current.date);
+        } while (!today.compareAndSet(current, next));
+        notifyEndOfDay(getListeners(), current, next);
+    }
+
+    @Override
+    public void updateLimit(double updatedSpendingAllocation) {
+        long totalLimitMinor = FinancialEntry.toMinorUnits(updatedSpendingAllocation);
+        int remainingDays;
+        Day current;
+        Day updated;
+        do {
+            current = today.get();
+            remainingDays = Math.max(1, current.totalDays - LocalDate.now(getClock()).getDayOfMonth() + 1);
+            updated = new Day(current.date, current.currentDay, current.totalDays, totalLimitMinor,
+                    totalLimitMinor / remainingDays, current.carryoverMinor, current.dailySpentMinor);
+        } while (!today.compareAndSet(current, updated));
+
+        for (BudgetListener listener : getListeners()) {
+            listener.onLimitUpdated(FinancialEntry.fromMinorUnits(totalLimitMinor), remainingDays,
+                    FinancialEntry.fromMinorUnits(updated.dailyLimitMinor));
+        }
+    }
+
+    @Override
+    public double getDailyLimit() {
+        Day day = today.get();
+        return FinancialEntry.fromMinorUnits(day.dailyLimitMinor + day.carryoverMinor - day.dailySpentMinor);
+    }
+
+    @Override
+    public void debugLimit() {
+        Day day = today.get();
+        long spent = spentMinor.get();
+        System.out.println("Dynamic Limit Debug:");
+        System.out.println(" - Total Limit (Monthly): GHC" + format(day.totalLimitMinor));
+        System.out.println(" - Total Spent (Monthly): GHC" + format(spent));
+        System.out.println(" - Daily Spent (Today): GHC" + format(day.dailySpentMinor));
+        System.out.println(" - Current Day: " + day.currentDay);
+        System.out.println(" - Daily Limit (Base): GHC" + format(day.dailyLimitMinor));
+        System.out.println(" - Carryover: GHC" + format(day.carryoverMinor));
+        System.out.println(" - Effective Daily Limit (Today): GHC" + format(day.dailyLimitMinor + day.carryoverMinor - day.dailySpentMinor));
+        System.out.println(" - Remaining Monthly Limit: GHC" + format(day.totalLimitMinor - spent));
+    }
+
+    @Override
+    public boolean hasExceededLimit() {
+        return spentMinor.get() > today.get().totalLimitMinor;
+    }
+
+    @Override
+    public double getTotalLimit() {
+        return FinancialEntry.fromMinorUnits(today.get().totalLimitMinor);
+    }
+
+    @Override
+    public int getTotalDays() {
+        return today.get().totalDays;
+    }
+
+    @Override
+    public int getCurrentDay() {
+        return today.get().currentDay;
+    }
+
+    @Override
+    public double getSpent() {
+        return FinancialEntry.fromMinorUnits(spentMinor.get());
+    }
+
+    @Override
+    public double getCarryover() {
+        return FinancialEntry.fromMinorUnits(today.get().carryoverMinor);
+    }
+
+    public long getSpentMinor() {
+        return spentMinor.get();
+    }
+
+    public long getDailySpentMinor() {
+        return today.get().dailySpentMinor;
+    }
+
+    private static void notifyEndOfDay(BudgetListener[] listeners, Day closed, Day next) {
+        for (BudgetListener listener : listeners) {
+            listener.onCarryoverComputed(FinancialEntry.fromMinorUnits(next.carryoverMinor));
+            if (closed.currentDay == closed.totalDays) {
+                listener.onMonthEnded();
+            }
+        }
+    }
+
+    private static String format(long amountMinor) {
+        return String.format("%.2f", FinancialEntry.fromMinorUnits(amountMinor));
+    }
+}
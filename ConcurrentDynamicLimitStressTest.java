@@ -0,0 +1,118 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stress check for ConcurrentDynamicLimit's CAS and rollover logic: threads
+// spend random amounts while one more thread moves the clock to the next day
+// at even steps through the run (and spends 0 after each move, so every day is
+// rolled over exactly once, under contention). Afterwards the month total must
+// equal everything submitted, and so must today's spending plus what was spent
+// on the closed days, worked back from the carryover (days * daily limit -
+// carryover). Exits non-zero when either total is off.
+//
+//   java com.campuscent.ConcurrentDynamicLimitStressTest [threads] [spendsPerThread]
+public class ConcurrentDynamicLimitStressTest {
+    private static final double MONTHLY_LIMIT = 31_000; // 1000.00 a day in January
+
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int spendsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        System.exit(run(threads, spendsPerThread) ? 0 : 1);
+    }
+
+    static boolean run(int threads, int spendsPerThread) {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        BudgetSimulation.SimulatedClock clock = new BudgetSimulation.SimulatedClock(start);
+        ConcurrentDynamicLimit limit = new ConcurrentDynamicLimit(clock);
+        limit.setQuiet(true);
+        limit.initializeLimit(MONTHLY_LIMIT); // No updateLimit, so the daily limit stays fixed
+        long dailyLimitMinor = FinancialEntry.toMinorUnits(MONTHLY_LIMIT) / start.lengthOfMonth();
+
+        AtomicLong submittedMinor = new AtomicLong();
+        AtomicLong spendsDone = new AtomicLong();
+        AtomicBoolean spending = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(threads + 1);
+        Thread[] spenders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            spenders[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                ready.countDown();
+                awaitQuietly(ready);
+                long submitted = 0;
+                for (int i = 0; i < spendsPerThread; i++) {
+                    long amountMinor = 1 + random.nextInt(5_000);
+                    limit.spend(FinancialEntry.fromMinorUnits(amountMinor));
+                    submitted += amountMinor;
+                    if ((i & 255) == 255) {
+                        spendsDone.addAndGet(256);
+                    }
+                }
+                submittedMinor.addAndGet(submitted);
+            }, "limit-stress-" + t);
+        }
+
+        int[] rollovers = {0};
+        Thread roller = new Thread(() -> {
+            ready.countDown();
+            awaitQuietly(ready);
+            long totalSpends = (long) threads * spendsPerThread;
+            int days = start.lengthOfMonth();
+            for (int day = 1; day < days && spending.get(); day++) {
+                while (spending.get() && spendsDone.get() < totalSpends * day / days) {
+                    Thread.yield();
+                }
+                clock.setDate(start.plusDays(day));
+                limit.spend(0); // Roll over now, so the next move starts from a new day
+                rollovers[0]++;
+            }
+        }, "limit-stress-roller");
+
+        long began = System.nanoTime();
+        for (Thread spender : spenders) {
+            spender.start();
+        }
+        roller.start();
+        try {
+            for (Thread spender : spenders) {
+                spender.join();
+            }
+            spending.set(false);
+            roller.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        long elapsedMillis = (System.nanoTime() - began) / 1_000_000;
+
+        long submitted = submittedMinor.get();
+        long carryoverMinor = FinancialEntry.toMinorUnits(limit.getCarryover());
+        long closedDaysMinor = rollovers[0] * dailyLimitMinor - carryoverMinor;
+        boolean totalMatches = limit.getSpentMinor() == submitted;
+        boolean dailyMatches = closedDaysMinor + limit.getDailySpentMinor() == submitted;
+
+        System.out.println("Concurrent Limit Stress Test (" + threads + " threads x " + spendsPerThread + " spends, "
+                + rollovers[0] + " rollovers, " + elapsedMillis + "ms):");
+        System.out.println(" - Submitted: GHC" + format(submitted));
+        System.out.println(" - Monthly Spent: GHC" + format(limit.getSpentMinor()) + (totalMatches ? " (match)" : " (MISMATCH)"));
+        System.out.println(" - Closed Days + Today: GHC" + format(closedDaysMinor + limit.getDailySpentMinor())
+                + (dailyMatches ? " (match)" : " (MISMATCH)"));
+        return totalMatches && dailyMatches;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String format(long amountMinor) {
+        return String.format("%.2f", FinancialEntry.fromMinorUnits(amountMinor));
+    }
+}
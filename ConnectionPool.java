@@ -0,0 +1,288 @@
+package com.campuscent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps a small set of warm SQLite connections so DatabaseHelper does not
+// reopen the database file for every query. Connections handed out are
+// proxies: calling close() returns them to the pool instead of closing them,
+// so callers keep using try-with-resources exactly as before.
+public class ConnectionPool implements AutoCloseable {
+    public static final int DEFAULT_POOL_SIZE = 4;
+    public static final int DEFAULT_BUSY_TIMEOUT_MS = 5000;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MS = 10000;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    // Idle connections are re-validated if they have not been used for this long
+    private static final long VALIDATE_AFTER_IDLE_MS = 30000;
+
+    private final String url;
+    private final int maxSize;
+    private final int busyTimeoutMs;
+    private final long acquireTimeoutMs;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    public ConnectionPool(String url) {
+        this(url, DEFAULT_POOL_SIZE, DEFAULT_BUSY_TIMEOUT_MS, DEFAULT_ACQUIRE_TIMEOUT_MS, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    public ConnectionPool(String url, int maxSize, int busyTimeoutMs, long acquireTimeoutMs, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1.");
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.busyTimeoutMs = busyTimeoutMs;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    // Open the configured number of connections up front
+    public void warmUp() throws SQLException {
+        List<PooledConnection> opened = new ArrayList<>();
+        while (totalConnections.get() < maxSize) {
+            PooledConnection pooled = tryCreate();
+            if (pooled == null) {
+                break;
+            }
+            opened.add(pooled);
+        }
+        for (PooledConnection pooled : opened) {
+            release(pooled);
+        }
+    }
+
+    // Borrow a connection; close() on the returned object hands it back
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down.");
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+        while (true) {
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled == null) {
+                pooled = tryCreate();
+            }
+            if (pooled == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SQLException("Timed out waiting for a database connection.");
+                }
+                try {
+                    pooled = idle.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection.", e);
+                }
+                if (pooled == null) {
+                    continue;
+                }
+            }
+
+            if (isHealthy(pooled)) {
+                pooled.inUse = true;
+                return pooled.proxy;
+            }
+            discard(pooled);
+        }
+    }
+
+    // Number of physical connections currently open
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Close every idle connection; borrowed ones are closed when they are returned
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    private PooledConnection tryCreate() throws SQLException {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= maxSize) {
+                return null;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+
+        try {
+            Connection physical = DriverManager.getConnection(url);
+            applyPragmas(physical);
+            return new PooledConnection(physical);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    // Pragmas are per-connection in SQLite, so they only need to run once here
+    private void applyPragmas(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMs);
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+        }
+    }
+
+    private boolean isHealthy(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - pooled.lastReturned > VALIDATE_AFTER_IDLE_MS) {
+                return pooled.physical.isValid(1);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        pooled.inUse = false;
+        try {
+            // Never hand out a connection with a half-finished transaction
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+            return;
+        }
+
+        if (closed) {
+            discard(pooled);
+            return;
+        }
+        pooled.lastReturned = System.currentTimeMillis();
+        idle.offerFirst(pooled);
+    }
+
+    private void discard(PooledConnection pooled) {
+        try {
+            pooled.statements.clear();
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.out.println("Error closing pooled connection: " + e.getMessage());
+        } finally {
+            totalConnections.decrementAndGet();
+        }
+    }
+
+    // Wraps one physical connection and intercepts close() and prepareStatement(sql)
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final Connection proxy;
+        private final StatementCache statements;
+        private volatile boolean inUse;
+        private volatile long lastReturned = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize,
+                    statementCacheHits, statementCacheMisses, statementCacheEvictions);
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxyObj, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (inUse) {
+                        release(this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return !inUse || physical.isClosed();
+                }
+                case "prepareStatement" -> {
+                    if (inUse && args.length == 1) {
+                        return statements.prepare((String) args[0]);
+                    }
+                    return invokePhysical(method, args);
+                }
+                case "toString" -> {
+                    return "Pooled" + physical;
+                }
+                case "equals" -> {
+                    return proxyObj == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxyObj);
+                }
+                default -> {
+                    return invokePhysical(method, args);
+                }
+            }
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            if (!inUse) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
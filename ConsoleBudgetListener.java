@@ -0,0 +1,49 @@
+package com.campuscent;
+
+// Prints budget events as the [NOTICE]/[ALERT] messages shown in the app.
+// Stateless, so the single INSTANCE is shared by every limit and goal.
+public class ConsoleBudgetListener implements BudgetListener {
+    public static final ConsoleBudgetListener INSTANCE = new ConsoleBudgetListener();
+
+    @Override
+    public void onOverspentToday(double overspentAmount) {
+        System.out.println("[NOTICE] You have overspent by GHC" + String.format("%.2f", overspentAmount) + " today!");
+    }
+
+    @Override
+    public void onUnderspentToday() {
+        System.out.println("[NOTICE] You have underspent today. Carryover will be applied at the end of the day.");
+    }
+
+    @Override
+    public void onMonthlyLimitExceeded(double overspentAmount) {
+        System.out.println("[ALERT] You have exceeded your monthly spending limit by GHC" + String.format("%.2f", overspentAmount) + "!");
+    }
+
+    @Override
+    public void onCarryoverComputed(double carryover) {
+        if (carryover < 0) {
+            System.out.println("[NOTICE] You overspent today by GHC" + String.format("%.2f", -carryover) + ". Tomorrow's limit will be reduced.");
+        } else {
+            System.out.println("[NOTICE] You underspent today by GHC" + String.format("%.2f", carryover) + ". Tomorrow's limit will increase.");
+        }
+    }
+
+    @Override
+    public void onMonthEnded() {
+        System.out.println("[NOTICE] You have reached the end of the month.");
+    }
+
+    @Override
+    public void onLimitUpdated(double totalLimit, int remainingDays, double dailyLimit) {
+        System.out.println("[UPDATE] Dynamic limit recalculated.");
+        System.out.println(" - Updated Total Spending Allocation: GHC" + totalLimit);
+        System.out.println(" - Remaining Days in Month: " + remainingDays);
+        System.out.println(" - New Daily Limit: GHC" + dailyLimit);
+    }
+
+    @Override
+    public void onGoalReached(double targetAmount) {
+        System.out.println("[CONGRATULATIONS] You have reached your savings goal of GHC" + String.format("%.2f", targetAmount) + "!");
+    }
+}
@@ -0,0 +1,167 @@
+package com.campuscent;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Per-user spending by day, held in Fenwick (binary indexed) trees keyed by
+// epoch day: one for all expenses and one per Category. Logging an expense
+// and asking "how much between these two dates" are both O(log n) in the
+// number of days covered, however long the ledger is. Amounts are in pesewas.
+public class DailySpendIndex {
+    private static final int INITIAL_DAYS = 64;
+    private static final int CATEGORIES = Category.values().length;
+
+    private long originDay;  // Epoch day stored at position 1 of every tree
+    private int capacity;    // Number of days covered; always a power of two
+    private long[] total;    // Fenwick tree over all expenses (1-indexed)
+    private long[][] byCategory;
+    private boolean empty = true;
+    private final Clock clock; // Decides what "today" is for getSpendLastDaysMinor
+
+    public DailySpendIndex() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public DailySpendIndex(Clock clock) {
+        this.clock = clock;
+        capacity = INITIAL_DAYS;
+        total = new long[capacity + 1];
+        byCategory = new long[CATEGORIES][capacity + 1];
+    }
+
+    // Build an index from a user's history; income rows are ignored
+    public static DailySpendIndex build(TransactionColumns transactions) {
+        return build(transactions, Clock.systemDefaultZone());
+    }
+
+    public static DailySpendIndex build(TransactionColumns transactions, Clock clock) {
+        DailySpendIndex index = new DailySpendIndex(clock);
+        TransactionColumns.Cursor cursor = transactions.cursor();
+        int expense = TransactionType.EXPENSE.ordinal();
+        while (cursor.next()) {
+            if (cursor.typeCode() == expense) {
+                index.add(cursor.epochDay(), cursor.categoryCode(), cursor.amountMinor());
+            }
+        }
+        return index;
+    }
+
+    // Record a newly logged entry; only expenses count towards spending
+    public void record(FinancialEntry entry) {
+        if (entry instanceof Expense) {
+            add(entry.getDate().toEpochDay(), ((Expense) entry).getCategory().ordinal(), entry.getAmountMinor());
+        }
+    }
+
+    public synchronized void add(long epochDay, int categoryCode, long amountMinor) {
+        if (empty) {
+            originDay = epochDay;
+            empty = false;
+        }
+        if (epochDay < originDay) {
+            rebase(epochDay);
+        }
+        while (epochDay - originDay >= capacity) {
+            grow();
+        }
+
+        int position = (int) (epochDay - originDay) + 1;
+        update(total, position, amountMinor);
+        update(byCategory[categoryCode], position, amountMinor);
+    }
+
+    // Total spent between two dates, both inclusive
+    public synchronized long getSpendMinor(LocalDate from, LocalDate to) {
+        return rangeSum(total, from.toEpochDay(), to.toEpochDay());
+    }
+
+    // Total spent on one category between two dates, both inclusive
+    public synchronized long getSpendMinor(LocalDate from, LocalDate to, Category category) {
+        return rangeSum(byCategory[category.ordinal()], from.toEpochDay(), to.toEpochDay());
+    }
+
+    // Total spent over the last given number of days, including today
+    public long getSpendLastDaysMinor(int days) {
+        LocalDate today = LocalDate.now(clock);
+        return getSpendMinor(today.minusDays(days - 1L), today);
+    }
+
+    public double getSpend(LocalDate from, LocalDate to) {
+        return FinancialEntry.fromMinorUnits(getSpendMinor(from, to));
+    }
+
+    private long rangeSum(long[] tree, long fromDay, long toDay) {
+        if (empty || toDay < fromDay) {
+            return 0;
+        }
+        long first = Math.max(fromDay, originDay) - originDay;
+        long last = Math.min(toDay, originDay + capacity - 1) - originDay;
+        if (first > last) {
+            return 0;
+        }
+        return prefixSum(tree, (int) last + 1) - prefixSum(tree, (int) first);
+    }
+
+    private static void update(long[] tree, int position, long delta) {
+        for (int i = position; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private static long prefixSum(long[] tree, int position) {
+        long sum = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Double the covered days. For a power-of-two size the existing nodes stay
+    // valid; the only new non-empty node is the one covering the whole old range.
+    private void grow() {
+        int newCapacity = capacity * 2;
+        total = extend(total, newCapacity);
+        for (int c = 0; c < CATEGORIES; c++) {
+            byCategory[c] = extend(byCategory[c], newCapacity);
+        }
+        capacity = newCapacity;
+    }
+
+    private long[] extend(long[] tree, int newCapacity) {
+        long[] extended = Arrays.copyOf(tree, newCapacity + 1);
+        extended[newCapacity] = prefixSum(tree, capacity);
+        return extended;
+    }
+
+    // An expense dated before the origin: rebuild the trees starting from the new day.
+    // Rare (backdated entries), so an O(n log n) rebuild is fine.
+    private void rebase(long newOriginDay) {
+        long shift = originDay - newOriginDay;
+        int newCapacity = capacity;
+        while (newCapacity < capacity + shift) {
+            newCapacity *= 2;
+        }
+
+        long[] newTotal = new long[newCapacity + 1];
+        long[][] newByCategory = new long[CATEGORIES][newCapacity + 1];
+        for (int position = 1; position <= capacity; position++) {
+            int moved = (int) (position + shift);
+            long day = prefixSum(total, position) - prefixSum(total, position - 1);
+            if (day != 0) {
+                update(newTotal, moved, day);
+            }
+            for (int c = 0; c < CATEGORIES; c++) {
+                long amount = prefixSum(byCategory[c], position) - prefixSum(byCategory[c], position - 1);
+                if (amount != 0) {
+                    update(newByCategory[c], moved, amount);
+                }
+            }
+        }
+
+        total = newTotal;
+        byCategory = newByCategory;
+        capacity = newCapacity;
+        originDay = newOriginDay;
+    }
+}
@@ -2,21 +2,115 @@ package com.campuscent;
 
 import com.campuscent.utils.AuthenticationHelper;
 import java.sql.*;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class DatabaseHelper {
-    private final String url;
+public class DatabaseHelper implements LedgerStore {
+    public static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO Transactions (username, amountMinor, epochDay, typeCode, categoryCode) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_INVESTMENT_SQL =
+            "INSERT INTO Investments (username, amount, date, duration, rate, projectedReturn, maturityDay) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_INVESTMENT_COLUMNS = "SELECT id, amount, date, duration, rate, projectedReturn FROM Investments ";
+
+    private final ConnectionPool pool;
+    private volatile WriteBehindQueue writeBehind; // Null unless write-behind mode is enabled
+    private final ConcurrentHashMap<String, CategoryAccumulator> accumulators = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DailySpendIndex> spendIndexes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, InvestmentIndex> investmentIndexes = new ConcurrentHashMap<>();
+    private final UserCache userCache = new UserCache();
+    private final AtomicLong rejectedRows = new AtomicLong();
+    private volatile Clock clock = Clock.systemDefaultZone(); // Passed to the per-user accumulators and indexes
+    private volatile RowMapper.RejectSink rejectSink =
+            (table, reason) -> System.out.println("Skipping malformed " + table + " row (" + reason + ").");
+    private final RowMapper.RejectSink rejects = (table, reason) -> {
+        rejectedRows.incrementAndGet();
+        rejectSink.reject(table, reason);
+    };
 
     public DatabaseHelper(String filePath) {
+        this(filePath, ConnectionPool.DEFAULT_POOL_SIZE);
+    }
+
+    public DatabaseHelper(String filePath, int poolSize) {
         // SQLite database URL
-        this.url = "jdbc:sqlite:" + filePath;
+        String url = "jdbc:sqlite:" + filePath;
+        this.pool = new ConnectionPool(url, poolSize,
+                ConnectionPool.DEFAULT_BUSY_TIMEOUT_MS, ConnectionPool.DEFAULT_ACQUIRE_TIMEOUT_MS,
+                ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    // Report how often prepared statements were reused instead of re-parsed
+    public void printStatementCacheStats() {
+        long hits = pool.getStatementCacheHits();
+        long misses = pool.getStatementCacheMisses();
+        double hitRate = hits + misses == 0 ? 0 : (hits * 100.0) / (hits + misses);
+        System.out.println("Statement Cache:");
+        System.out.println(" - Hits: " + hits);
+        System.out.println(" - Misses: " + misses);
+        System.out.println(" - Evictions: " + pool.getStatementCacheEvictions());
+        System.out.println(" - Hit Rate: " + String.format("%.1f", hitRate) + "%");
+    }
+
+    // Report how many user lookups were answered without querying Users
+    public void printUserCacheStats() {
+        System.out.println("User Cache:");
+        System.out.println(" - Hits: " + userCache.getHits());
+        System.out.println(" - Unknown User Hits: " + userCache.getNegativeHits());
+        System.out.println(" - Misses: " + userCache.getMisses());
+        System.out.println(" - Evictions: " + userCache.getEvictions());
+        System.out.println(" - Expirations: " + userCache.getExpirations());
+        System.out.println(" - Hit Rate: " + String.format("%.1f", userCache.getHitRate()) + "%");
+    }
+
+    // Send logTransaction and logInvestment writes through a background writer
+    // that commits them in groups. Call flush() or close() to make them durable.
+    public synchronized void enableWriteBehind(int queueCapacity, int maxBatchSize) {
+        if (writeBehind == null) {
+            writeBehind = new WriteBehindQueue(pool, queueCapacity, maxBatchSize);
+        }
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehind != null;
+    }
+
+    // Block until every queued write has been committed
+    public void flush() {
+        WriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            queue.flush();
+        }
+    }
+
+    // Release all pooled connections when the application shuts down
+    @Override
+    public void close() {
+        WriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            queue.close(); // Commit queued writes before the pool goes away
+        }
+        pool.close();
     }
 
     // Test database connection
     public void testConnection() {
-        try (Connection conn = DriverManager.getConnection(url)) {
+        try (Connection conn = pool.getConnection()) {
             if (conn != null) {
                 System.out.println("Connected to the database successfully!");
             }
@@ -25,72 +119,27 @@ public class DatabaseHelper {
         }
     }
 
-    // Initialize the database with required tables
+    // Initialize the database, creating or upgrading tables and indexes as needed
     public void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(url);
-             Statement stmt = conn.createStatement()) {
-
-            // Create Users table
-            String createUsersTable = """
-                CREATE TABLE IF NOT EXISTS Users (
-                    username TEXT PRIMARY KEY,
-                    password TEXT NOT NULL
-                );
-            """;
-            stmt.execute(createUsersTable);
-
-            // Create Goals table
-            String createGoalsTable = """
-                CREATE TABLE IF NOT EXISTS Goals (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    username TEXT NOT NULL,
-                    targetAmount REAL NOT NULL,
-                    currentAmount REAL DEFAULT 0,
-                    year INTEGER NOT NULL,
-                    FOREIGN KEY (username) REFERENCES Users(username)
-                );
-            """;
-            stmt.execute(createGoalsTable);
-
-            // Create Transactions table
-            String createTransactionsTable = """
-                CREATE TABLE IF NOT EXISTS Transactions (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    username TEXT NOT NULL,
-                    amount REAL NOT NULL,
-                    date TEXT NOT NULL,
-                    type TEXT NOT NULL,
-                    category TEXT,
-                    FOREIGN KEY (username) REFERENCES Users(username)
-                );
-            """;
-            stmt.execute(createTransactionsTable);
-
-            // Create Investments table
-            String createInvestmentsTable = """
-                CREATE TABLE IF NOT EXISTS Investments (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    username TEXT NOT NULL,
-                    amount REAL NOT NULL,
-                    date TEXT NOT NULL,
-                    duration INTEGER NOT NULL,
-                    rate REAL NOT NULL,
-                    projectedReturn REAL NOT NULL,
-                    FOREIGN KEY (username) REFERENCES Users(username)
-                );
-            """;
-            stmt.execute(createInvestmentsTable);
+        try {
+            pool.warmUp();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
 
+        try (Connection conn = pool.getConnection()) {
+            new SchemaMigrator().migrate(conn);
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
     // Add a user to the database
+    @Override
     public void addUser(String username, String plainPassword) {
         String sql = "INSERT INTO Users (username, password) VALUES (?, ?)";
 
-        try (Connection conn = DriverManager.getConnection(url);
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             String hashedPassword = AuthenticationHelper.hashPassword(plainPassword); // Hash password
             pstmt.setString(1, username);
@@ -98,104 +147,664 @@ public class DatabaseHelper {
             pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException(e);
+        } finally {
+            userCache.invalidate(username); // The username may be cached as unknown
         }
     }
 
-    // Retrieve user by username
+    // Replace a user's password
+    @Override
+    public void updatePassword(String username, String plainPassword) {
+        String sql = "UPDATE Users SET password = ? WHERE username = ?";
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, AuthenticationHelper.hashPassword(plainPassword));
+            pstmt.setString(2, username);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            userCache.invalidate(username);
+        }
+    }
+
+    // Retrieve user by username, from the user cache when possible
+    @Override
     public User getUserByUsername(String username) {
+        try {
+            return userCache.get(username, this::loadPasswordHash);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null; // Lookup failed; nothing is cached
+        }
+    }
+
+    // Password hash stored for a user, or null if there is no such user.
+    // Errors are thrown so that a failed query is not cached as an unknown user.
+    private String loadPasswordHash(String username) {
         String sql = "SELECT username, password FROM Users WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection(url);
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
+            RowMapper<User> mapper = RowMappers.users();
+            mapper.bind(rs);
             if (rs.next()) {
-                String password = rs.getString("password");
-                return new User(username, password);
+                User user = mapper.map(rs, rejects);
+                return user == null ? null : user.getHashedPassword();
             }
+            return null; // User not found
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new IllegalStateException("Error looking up user " + username + ": " + e.getMessage(), e);
         }
-        return null; // User not found
     }
 
     // Retrieve all users
+    @Override
     public List<User> getUsers() {
-        String sql = "SELECT * FROM Users";
+        String sql = "SELECT username, password FROM Users";
         List<User> users = new ArrayList<>();
+        query(sql, RowMappers.users(), users::add);
+        return users;
+    }
 
-        try (Connection conn = DriverManager.getConnection(url);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    // Add a financial transaction (income or expense)
+    @Override
+    public void addTransaction(FinancialEntry entry, String username) {
+        try {
+            insertTransaction(entry, username);
+            recordLiveTotals(username, entry);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
 
-            while (rs.next()) {
-                String username = rs.getString("username");
-                String password = rs.getString("password");
-                users.add(new User(username, password));
-            }
+    private void insertTransaction(FinancialEntry entry, String username) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_TRANSACTION_SQL)) {
+            bindTransaction(pstmt, entry, username);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Add many transactions at once, committing every DEFAULT_BATCH_CHUNK_SIZE rows
+    @Override
+    public BatchResult addTransactions(List<? extends FinancialEntry> entries, String username) {
+        return addTransactions(entries.iterator(), username, DEFAULT_BATCH_CHUNK_SIZE);
+    }
+
+    // Add transactions in chunks, one explicit transaction (and one fsync) per chunk.
+    // Invalid rows are reported in the result instead of aborting the import.
+    public BatchResult addTransactions(Iterator<? extends FinancialEntry> entries, String username, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
 
+        BatchResult result = new BatchResult();
+        List<FinancialEntry> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+        List<Integer> chunkIndexes = new ArrayList<>(Math.min(chunkSize, 1024));
+
+        try (Connection conn = pool.getConnection()) {
+            int index = 0;
+            while (entries.hasNext()) {
+                FinancialEntry entry = entries.next();
+                String problem = validateTransaction(entry);
+                if (problem != null) {
+                    result.recordFailure(index, entry, problem);
+                } else {
+                    chunk.add(entry);
+                    chunkIndexes.add(index);
+                }
+                index++;
+
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(conn, chunk, chunkIndexes, username, result);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(conn, chunk, chunkIndexes, username, result);
+            }
         } catch (SQLException e) {
+            System.out.println("Error during batch import: " + e.getMessage());
             e.printStackTrace();
+            // Everything not yet read was never written; report it so callers don't assume it was
+            int index = result.getInserted() + result.getFailed();
+            while (entries.hasNext()) {
+                result.recordFailure(index++, entries.next(), "Not written: " + e.getMessage());
+            }
         }
 
-        return users;
+        return result;
     }
 
-    // Add a financial transaction (income or expense)
-    public void addTransaction(FinancialEntry entry, String username) {
-        String sql = "INSERT INTO Transactions (username, amount, date, type, category) VALUES (?, ?, ?, ?, ?)";
+    // Write one chunk as a single JDBC batch; if the batch fails, retry row by row
+    // so only the offending rows are rejected
+    private void writeChunk(Connection conn, List<FinancialEntry> chunk, List<Integer> chunkIndexes,
+                            String username, BatchResult result) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TRANSACTION_SQL)) {
+            try {
+                for (FinancialEntry entry : chunk) {
+                    bindTransaction(pstmt, entry, username);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                for (int i = 0; i < chunk.size(); i++) {
+                    result.recordInserted(chunkIndexes.get(i));
+                    recordLiveTotals(username, chunk.get(i));
+                }
+            } catch (SQLException batchError) {
+                conn.rollback();
+                pstmt.clearBatch();
 
-        try (Connection conn = DriverManager.getConnection(url);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            pstmt.setDouble(2, entry.getAmount());
-            pstmt.setString(3, entry.getDate().toString());
-            pstmt.setString(4, entry instanceof Income ? "Income" : "Expense");
-
-            if (entry instanceof Expense) {
-                pstmt.setString(5, ((Expense) entry).getCategory().toString()); // Store Expense category
-            } else if (entry instanceof Income) {
-                pstmt.setString(5, ((Income) entry).getCategory().name()); // Store IncomeCategory
+                List<Integer> written = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        bindTransaction(pstmt, chunk.get(i), username);
+                        pstmt.executeUpdate();
+                        written.add(i);
+                    } catch (SQLException rowError) {
+                        if (isLockError(rowError)) {
+                            throw rowError; // Not this row's fault; every later row would wait and fail too
+                        }
+                        result.recordFailure(chunkIndexes.get(i), chunk.get(i), rowError.getMessage());
+                    }
+                }
+                conn.commit();
+                for (int i : written) {
+                    result.recordInserted(chunkIndexes.get(i));
+                    recordLiveTotals(username, chunk.get(i));
+                }
             }
-            pstmt.executeUpdate();
         } catch (SQLException e) {
-            e.printStackTrace();
+            // The chunk was not committed; rows not already rejected are reported as not written
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!result.isRecorded(chunkIndexes.get(i))) {
+                    result.recordFailure(chunkIndexes.get(i), chunk.get(i), "Not written: " + e.getMessage());
+                }
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            chunk.clear();
+            chunkIndexes.clear();
+        }
+    }
+
+    // SQLITE_BUSY or SQLITE_LOCKED: the database, not the row, is the problem
+    private static boolean isLockError(SQLException e) {
+        int code = e.getErrorCode() & 0xff; // Extended codes keep the primary code in the low byte
+        return code == 5 || code == 6;
+    }
+
+    // Returns a description of what is wrong with the entry, or null if it can be stored
+    static String validateTransaction(FinancialEntry entry) {
+        if (entry == null) {
+            return "Entry is missing.";
+        }
+        if (entry.getDate() == null) {
+            return "Date is missing.";
+        }
+        if (Double.isNaN(entry.getAmount()) || Double.isInfinite(entry.getAmount())) {
+            return "Amount is not a number.";
+        }
+        if (entry instanceof Expense && ((Expense) entry).getCategory() == null) {
+            return "Expense category is missing.";
+        }
+        if (entry instanceof Income && ((Income) entry).getCategory() == null) {
+            return "Income category is missing.";
+        }
+        if (!(entry instanceof Expense) && !(entry instanceof Income)) {
+            return "Unsupported entry type: " + entry.getClass().getSimpleName();
+        }
+        return null;
+    }
+
+    private static void bindTransaction(PreparedStatement pstmt, FinancialEntry entry, String username) throws SQLException {
+        pstmt.setString(1, username);
+        pstmt.setLong(2, entry.getAmountMinor());
+        pstmt.setLong(3, entry.getDate().toEpochDay());
+        pstmt.setInt(4, TransactionType.of(entry).ordinal());
+
+        if (entry instanceof Expense) {
+            pstmt.setInt(5, ((Expense) entry).getCategory().ordinal()); // Store Expense category code
+        } else if (entry instanceof Income) {
+            pstmt.setInt(5, ((Income) entry).getCategory().ordinal()); // Store IncomeCategory code
         }
     }
 
     // Retrieve all transactions for a user
+    @Override
     public List<FinancialEntry> getTransactions(String username) {
-        String sql = "SELECT * FROM Transactions WHERE username = ?";
         List<FinancialEntry> transactions = new ArrayList<>();
+        forEachTransaction(new TransactionQuery(username), (id, entry) -> transactions.add(entry));
+        return transactions;
+    }
+
+    // Load a user's history straight into primitive columns, skipping Income/Expense objects
+    @Override
+    public TransactionColumns getTransactionColumns(String username) {
+        String sql = "SELECT id, amountMinor, epochDay, typeCode, categoryCode FROM Transactions WHERE username = ? ORDER BY epochDay, id";
+        TransactionColumns columns = new TransactionColumns();
 
-        try (Connection conn = DriverManager.getConnection(url);
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
+            RowMappers.TransactionMapper mapper = RowMappers.transactions();
+            mapper.bind(rs);
+            while (rs.next()) {
+                mapper.readInto(rs, columns, rejects);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error retrieving transactions: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return columns;
+    }
 
+    // Visit matching transactions in (date, id) order without collecting them in memory.
+    // Returns the number of rows passed to the handler.
+    @Override
+    public int forEachTransaction(TransactionQuery query, TransactionHandler handler) {
+        List<Object> params = new ArrayList<>();
+        String sql = buildTransactionSql(query, params);
+        int count = 0;
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bindParams(pstmt, params);
+            ResultSet rs = pstmt.executeQuery();
+            RowMappers.TransactionMapper mapper = RowMappers.transactions();
+            mapper.bind(rs);
             while (rs.next()) {
-                double amount = rs.getDouble("amount");
-                LocalDate date = LocalDate.parse(rs.getString("date"));
-                String type = rs.getString("type");
-                String category = rs.getString("category");
-
-                if ("Expense".equalsIgnoreCase(type)) {
-                    transactions.add(new Expense(amount, date, Category.valueOf(category)));
-                } else if ("Income".equalsIgnoreCase(type)) {
-                    transactions.add(new Income(amount, date, IncomeCategory.valueOf(category)));
+                FinancialEntry entry = mapper.map(rs, rejects);
+                if (entry != null) {
+                    handler.handle(mapper.id(rs), entry);
+                    count++;
                 }
             }
-        } catch (SQLException | IllegalArgumentException e) {
+        } catch (SQLException e) {
             System.out.println("Error retrieving transactions: " + e.getMessage());
             e.printStackTrace();
         }
+        return count;
+    }
 
-        return transactions;
+    // Fetch one page of at most query.getLimit() rows and the cursor for the next page
+    public TransactionPage getTransactionPage(TransactionQuery query) {
+        if (query.getLimit() <= 0) {
+            throw new IllegalArgumentException("A page query needs a positive limit.");
+        }
+
+        int pageSize = query.getLimit();
+        List<FinancialEntry> entries = new ArrayList<>(pageSize);
+        LocalDate[] lastDate = {query.getAfterDate()};
+        long[] lastId = {query.getAfterId()};
+
+        // Read one extra row to learn whether another page follows
+        query.limit(pageSize + 1);
+        int rowsRead;
+        try {
+            rowsRead = forEachTransaction(query, (id, entry) -> {
+                if (entries.size() < pageSize) {
+                    entries.add(entry);
+                    lastDate[0] = entry.getDate();
+                    lastId[0] = id;
+                }
+            });
+        } finally {
+            query.limit(pageSize);
+        }
+
+        return new TransactionPage(entries, lastDate[0], lastId[0], rowsRead > pageSize);
+    }
+
+    // Stream matching transactions lazily. The stream holds a pooled connection
+    // until it is closed, so use it in a try-with-resources block.
+    public Stream<FinancialEntry> streamTransactions(TransactionQuery query) {
+        List<Object> params = new ArrayList<>();
+        String sql = buildTransactionSql(query, params);
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        try {
+            conn = pool.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            bindParams(pstmt, params);
+            ResultSet rs = pstmt.executeQuery();
+            RowMappers.TransactionMapper mapper = RowMappers.transactions();
+            mapper.bind(rs);
+
+            Connection openConn = conn;
+            PreparedStatement openStmt = pstmt;
+            Iterator<FinancialEntry> rows = new Iterator<>() {
+                private FinancialEntry next;
+                private boolean done;
+
+                @Override
+                public boolean hasNext() {
+                    if (next != null) {
+                        return true;
+                    }
+                    if (done) {
+                        return false;
+                    }
+                    try {
+                        while (rs.next()) {
+                            next = mapper.map(rs, rejects);
+                            if (next != null) {
+                                return true;
+                            }
+                        }
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Error reading transactions: " + e.getMessage(), e);
+                    }
+                    done = true;
+                    return false;
+                }
+
+                @Override
+                public FinancialEntry next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    FinancialEntry entry = next;
+                    next = null;
+                    return entry;
+                }
+            };
+
+            return StreamSupport.stream(
+                            Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> closeQuietly(openStmt, openConn));
+        } catch (SQLException e) {
+            closeQuietly(pstmt, conn);
+            System.out.println("Error retrieving transactions: " + e.getMessage());
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+
+    // Per-category sum, count, min and max for transactions between from and to
+    // (inclusive, null for unbounded), aggregated by SQLite
+    @Override
+    public List<CategoryTotal> getCategoryTotals(String username, LocalDate from, LocalDate to) {
+        return queryCategoryTotals(username, from, to, false);
+    }
+
+    // Same as getCategoryTotals, but with a separate total for every month
+    @Override
+    public List<CategoryTotal> getMonthlyCategoryTotals(String username, LocalDate from, LocalDate to) {
+        return queryCategoryTotals(username, from, to, true);
+    }
+
+    private List<CategoryTotal> queryCategoryTotals(String username, LocalDate from, LocalDate to, boolean byMonth) {
+        // Whole-month windows can be answered from the MonthlyRollup table
+        boolean monthAligned = (from == null || from.getDayOfMonth() == 1)
+                && (to == null || to.getDayOfMonth() == to.lengthOfMonth());
+
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        params.add(username);
+        if (monthAligned) {
+            sql.append("SELECT typeCode, categoryCode, ").append(byMonth ? "month" : "NULL")
+                    .append(", SUM(sumMinor), SUM(count), MIN(minMinor), MAX(maxMinor) FROM MonthlyRollup WHERE username = ?");
+            if (from != null) {
+                sql.append(" AND month >= ?");
+                params.add(toMonthKey(YearMonth.from(from)));
+            }
+            if (to != null) {
+                sql.append(" AND month <= ?");
+                params.add(toMonthKey(YearMonth.from(to)));
+            }
+            sql.append(byMonth ? " GROUP BY month, typeCode, categoryCode ORDER BY month, typeCode, categoryCode"
+                    : " GROUP BY typeCode, categoryCode ORDER BY typeCode, categoryCode");
+        } else {
+            String month = byMonth ? "CAST(strftime('%Y%m', epochDay * 86400, 'unixepoch') AS INTEGER)" : "NULL";
+            sql.append("SELECT typeCode, categoryCode, ").append(month).append(" AS month, ")
+                    .append("SUM(amountMinor), COUNT(*), MIN(amountMinor), MAX(amountMinor) FROM Transactions WHERE username = ?");
+            if (from != null) {
+                sql.append(" AND epochDay >= ?");
+                params.add(from.toEpochDay());
+            }
+            if (to != null) {
+                sql.append(" AND epochDay <= ?");
+                params.add(to.toEpochDay());
+            }
+            sql.append(byMonth ? " GROUP BY month, typeCode, categoryCode ORDER BY month, typeCode, categoryCode"
+                    : " GROUP BY typeCode, categoryCode ORDER BY typeCode, categoryCode");
+        }
+
+        List<CategoryTotal> totals = new ArrayList<>();
+        TransactionType[] types = TransactionType.values(); // Copied once per query, not per row
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            bindParams(pstmt, params);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                int typeCode = rs.getInt(1);
+                int categoryCode = rs.getInt(2);
+                String problem = RowMappers.checkCodes(typeCode, categoryCode);
+                if (problem != null) {
+                    rejects.reject(monthAligned ? "MonthlyRollup" : "Transactions", problem);
+                    continue;
+                }
+                int monthKey = rs.getInt(3);
+                YearMonth month = rs.wasNull() ? null : fromMonthKey(monthKey);
+                totals.add(new CategoryTotal(types[typeCode], categoryCode, month,
+                        rs.getLong(4), rs.getInt(5), rs.getLong(6), rs.getLong(7)));
+            }
+        } catch (SQLException e) {
+            System.out.println("Error summarizing transactions: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return totals;
+    }
+
+    // Recompute MonthlyRollup from scratch, e.g. after editing Transactions by hand
+    public void rebuildMonthlyRollup() {
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM MonthlyRollup");
+                stmt.executeUpdate(SchemaMigrator.REBUILD_ROLLUP_SQL);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.out.println("Error rebuilding monthly rollup: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Compare MonthlyRollup with the raw Transactions table. Returns the number of
+    // rollup rows that are missing, extra or different (0 means consistent), or -1 on error.
+    public int verifyMonthlyRollup() {
+        String rollup = "SELECT username, month, typeCode, categoryCode, sumMinor, count, minMinor, maxMinor FROM MonthlyRollup";
+        String expected = SchemaMigrator.ROLLUP_SELECT_SQL;
+        String sql = "SELECT COUNT(*) FROM ("
+                + "SELECT * FROM (" + expected + " EXCEPT " + rollup + ") "
+                + "UNION ALL "
+                + "SELECT * FROM (" + rollup + " EXCEPT " + expected + "))";
+
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.out.println("Error verifying monthly rollup: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    // Months are stored as yyyymm integers
+    private static int toMonthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static YearMonth fromMonthKey(int monthKey) {
+        return YearMonth.of(monthKey / 100, monthKey % 100);
+    }
+
+    private static String buildTransactionSql(TransactionQuery query, List<Object> params) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, amountMinor, epochDay, typeCode, categoryCode FROM Transactions WHERE username = ?");
+        params.add(query.getUsername());
+
+        if (query.getFrom() != null) {
+            sql.append(" AND epochDay >= ?");
+            params.add(query.getFrom().toEpochDay());
+        }
+        if (query.getTo() != null) {
+            sql.append(" AND epochDay <= ?");
+            params.add(query.getTo().toEpochDay());
+        }
+        if (query.getType() != null) {
+            sql.append(" AND typeCode = ?");
+            params.add(query.getType().ordinal());
+        }
+        if (query.getCategoryCode() >= 0) {
+            sql.append(" AND categoryCode = ?");
+            params.add(query.getCategoryCode());
+        }
+        if (query.getAfterDate() != null) {
+            sql.append(" AND (epochDay > ? OR (epochDay = ? AND id > ?))");
+            params.add(query.getAfterDate().toEpochDay());
+            params.add(query.getAfterDate().toEpochDay());
+            params.add(query.getAfterId());
+        }
+
+        sql.append(" ORDER BY epochDay, id");
+        if (query.getLimit() > 0) {
+            sql.append(" LIMIT ?");
+            params.add(query.getLimit());
+        }
+        return sql.toString();
+    }
+
+    private static void bindParams(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    // Run a query and pass every row the mapper accepts to the consumer.
+    // Returns the number of rows passed on.
+    private <T> int query(String sql, RowMapper<T> mapper, Consumer<T> consumer, Object... params) {
+        int count = 0;
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            mapper.bind(rs);
+            while (rs.next()) {
+                T row = mapper.map(rs, rejects);
+                if (row != null) {
+                    consumer.accept(row);
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return count;
+    }
+
+    // Number of malformed rows skipped by reads since this helper was created
+    public long getRejectedRowCount() {
+        return rejectedRows.get();
+    }
+
+    // Send malformed rows somewhere other than the console, e.g. a log or a list in a test
+    public void setRejectSink(RowMapper.RejectSink sink) {
+        this.rejectSink = sink;
+    }
+
+    private static void closeQuietly(Statement stmt, Connection conn) {
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        try {
+            if (conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public LimitSnapshot getLimitSnapshot(String username, YearMonth month) {
+        String sql = "SELECT lastEpochDay, lastId, rowCount, totalLimitMinor, dailyLimitMinor, spentMinor, dailySpentMinor, "
+                + "carryoverMinor, currentDay, currentEpochDay FROM LimitSnapshots WHERE username = ? AND month = ?";
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            pstmt.setInt(2, toMonthKey(month));
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                long currentEpochDay = rs.getLong(10);
+                LocalDate currentDate = rs.wasNull() ? null : LocalDate.ofEpochDay(currentEpochDay);
+                return new LimitSnapshot(month, LocalDate.ofEpochDay(rs.getLong(1)), rs.getLong(2), rs.getInt(3),
+                        rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8), rs.getInt(9), currentDate);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error loading budget snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null; // Replay the month from the start
+    }
+
+    @Override
+    public void saveLimitSnapshot(String username, LimitSnapshot snapshot) {
+        if (snapshot.getLastDate() == null) {
+            return; // Nothing replayed yet
+        }
+        String sql = "INSERT OR REPLACE INTO LimitSnapshots (username, month, lastEpochDay, lastId, rowCount, totalLimitMinor, "
+                + "dailyLimitMinor, spentMinor, dailySpentMinor, carryoverMinor, currentDay, currentEpochDay) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            pstmt.setInt(2, toMonthKey(snapshot.getMonth()));
+            pstmt.setLong(3, snapshot.getLastDate().toEpochDay());
+            pstmt.setLong(4, snapshot.getLastId());
+            pstmt.setInt(5, snapshot.getRowCount());
+            pstmt.setLong(6, snapshot.getTotalLimitMinor());
+            pstmt.setLong(7, snapshot.getDailyLimitMinor());
+            pstmt.setLong(8, snapshot.getSpentMinor());
+            pstmt.setLong(9, snapshot.getDailySpentMinor());
+            pstmt.setLong(10, snapshot.getCarryoverMinor());
+            pstmt.setInt(11, snapshot.getCurrentDay());
+            if (snapshot.getCurrentDate() != null) {
+                pstmt.setLong(12, snapshot.getCurrentDate().toEpochDay());
+            } else {
+                pstmt.setNull(12, Types.INTEGER);
+            }
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.out.println("Error saving budget snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
 
     // Check if a savings goal exists for the current year
+    @Override
     public boolean hasYearlyGoal(String username, int year) {
         String sql = "SELECT COUNT(*) AS count FROM Goals WHERE username = ? AND year= ?";
-        try (Connection conn = DriverManager.getConnection(url);
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             pstmt.setInt(2, year);
@@ -210,10 +819,11 @@ public class DatabaseHelper {
     }
 
     // Add a savings goal
+    @Override
     public void addGoal(String username, double targetAmount, double currentAmount, int year) {
         String sql = "INSERT INTO Goals (username, targetAmount, currentAmount, year) VALUES (?, ?, ?, ?)";
 
-        try (Connection conn = DriverManager.getConnection(url);
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             pstmt.setDouble(2, targetAmount);
@@ -226,34 +836,20 @@ public class DatabaseHelper {
     }
 
     // Retrieve all goals for a user
+    @Override
     public List<Goal> getGoals(String username) {
-        String sql = "SELECT * FROM Goals WHERE username = ?";
+        String sql = "SELECT username, targetAmount, currentAmount, year FROM Goals WHERE username = ?";
         List<Goal> goals = new ArrayList<>();
-
-        try (Connection conn = DriverManager.getConnection(url);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                double targetAmount = rs.getDouble("targetAmount");
-                double currentAmount = rs.getDouble("currentAmount");
-                int year = rs.getInt("year");
-                goals.add(new Goal(targetAmount, year, username));
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
+        query(sql, RowMappers.goals(), goals::add, username);
         return goals;
     }
 
+    @Override
     public Goal getSavingsGoal(String username) {
         String sql = "SELECT targetAmount, currentAmount, year FROM Goals WHERE username = ? AND year = ?";
-        int currentYear = LocalDate.now().getYear();
+        int currentYear = LocalDate.now(clock).getYear();
 
-        try (Connection conn = DriverManager.getConnection(url);
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
@@ -275,10 +871,11 @@ public class DatabaseHelper {
 
 
     // Update goal progress
+    @Override
     public void updateGoalProgress(String username, double targetAmount, double currentAmount) {
         String sql = "UPDATE Goals SET currentAmount = ? WHERE username = ? AND targetAmount = ?";
 
-        try (Connection conn = DriverManager.getConnection(url);
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setDouble(1, currentAmount);
             pstmt.setString(2, username);
@@ -289,55 +886,228 @@ public class DatabaseHelper {
         }
     }
 
-    // Log a financial transaction and associate it with a user
+    // Log a financial transaction and associate it with a user. In write-behind
+    // mode this returns as soon as the row is queued and a failed write is
+    // reported when the writer gets to it; use logTransactionAsync or flush()
+    // to wait for the row to be stored.
+    @Override
     public void logTransaction(User user, FinancialEntry transaction) {
+        if (writeBehind != null) {
+            logTransactionAsync(user, transaction).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    System.out.println("Error logging transaction: " + causeOf(error).getMessage());
+                }
+            });
+            System.out.println("Transaction queued for saving.");
+            return;
+        }
         try {
-            user.addTransaction(transaction);
-            addTransaction(transaction, user.getUsername());
+            logTransactionAsync(user, transaction).join(); // Only report success once the row is stored
             System.out.println("Transaction logged successfully!");
+        } catch (CompletionException e) {
+            System.out.println("Error logging transaction: " + causeOf(e).getMessage());
         } catch (Exception e) {
             System.out.println("Error logging transaction: " + e.getMessage());
         }
     }
 
-    public Goal getYearlyGoal(String username, int year) {
-        String sql = "SELECT targetAmount, currentAmount, year FROM Goals WHERE username = ? AND year = ?";
-        try (Connection conn = DriverManager.getConnection(url);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            pstmt.setInt(2, year);
-            ResultSet rs = pstmt.executeQuery();
+    // The original failure behind a CompletionException from a future
+    private static Throwable causeOf(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
 
-            if (rs.next()) {
-                double targetAmount = rs.getDouble("targetAmount");
-                double currentAmount = rs.getDouble("currentAmount");
-                // Create the Goal object
-                Goal goal = new Goal(targetAmount, year, username);
-                goal.setCurrentAmount(currentAmount);
+    // Log a transaction and return a future that completes once the row is committed,
+    // or fails if it could not be stored. Without write-behind mode the write happens
+    // before this method returns. The user's history and live totals are only updated
+    // once the row is stored, so a failed write leaves them unchanged.
+    public CompletableFuture<Void> logTransactionAsync(User user, FinancialEntry transaction) {
+        String username = user.getUsername();
+        CompletableFuture<Void> stored;
 
-                return goal;
+        WriteBehindQueue queue = writeBehind;
+        if (queue == null) {
+            stored = new CompletableFuture<>();
+            try {
+                insertTransaction(transaction, username);
+                stored.complete(null);
+            } catch (SQLException | RuntimeException e) {
+                stored.completeExceptionally(e);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        } else {
+            stored = queue.submit(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT_TRANSACTION_SQL)) {
+                    bindTransaction(pstmt, transaction, username);
+                    pstmt.executeUpdate();
+                }
+            });
         }
-        return null; // No goal found
+
+        return stored.thenRun(() -> {
+            user.addTransaction(transaction);
+            recordLiveTotals(username, transaction);
+        });
     }
 
+    // Clock that decides "today" and the current month for the accumulators and
+    // spend indexes; set it before they are built (normally at startup)
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
 
+    public Clock getClock() {
+        return clock;
+    }
+
+    // Running category totals for a user. The first call (normally at login) seeds
+    // them from MonthlyRollup; afterwards every transaction added here updates them.
+    @Override
+    public CategoryAccumulator getCategoryAccumulator(String username) {
+        return accumulators.computeIfAbsent(username,
+                name -> CategoryAccumulator.seed(getMonthlyCategoryTotals(name, null, null), clock));
+    }
+
+    // Daily spend index for a user, built from the full history on first use
+    // and kept current by every transaction added here
+    @Override
+    public DailySpendIndex getDailySpendIndex(String username) {
+        return spendIndexes.computeIfAbsent(username,
+                name -> DailySpendIndex.build(getTransactionColumns(name), clock));
+    }
+
+    private void recordLiveTotals(String username, FinancialEntry entry) {
+        CategoryAccumulator accumulator = accumulators.get(username);
+        if (accumulator != null) {
+            accumulator.record(entry);
+        }
+        DailySpendIndex spendIndex = spendIndexes.get(username);
+        if (spendIndex != null) {
+            spendIndex.record(entry);
+        }
+    }
+
+    // Log many transactions for a user with a single batched write
+    public BatchResult logTransactions(User user, List<? extends FinancialEntry> transactions) {
+        BatchResult result = addTransactions(transactions, user.getUsername());
+
+        // Only keep the rows confirmed as stored in the user's in-memory history
+        for (int i = 0; i < transactions.size(); i++) {
+            if (result.isInserted(i)) {
+                user.addTransaction(transactions.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Goal getYearlyGoal(String username, int year) {
+        String sql = "SELECT username, targetAmount, currentAmount, year FROM Goals WHERE username = ? AND year = ? LIMIT 1";
+        List<Goal> goals = new ArrayList<>(1);
+        query(sql, RowMappers.goals(), goals::add, username, year);
+        return goals.isEmpty() ? null : goals.get(0); // Null when no goal is found
+    }
+
+
+    @Override
     public void logInvestment(String username, double amount, LocalDate date, int duration, double rate, double projectedReturn) {
-        String sql = "INSERT INTO Investments (username, amount, date, duration, rate, projectedReturn) VALUES (?, ?, ?, ?, ?, ?)";
+        logInvestmentAsync(username, amount, date, duration, rate, projectedReturn).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.out.println("Error logging investment: " + causeOf(error).getMessage());
+            }
+        });
+    }
+
+    // Log an investment and return a future that completes once the row is committed.
+    // The user's investment index only gets the position, with its generated id,
+    // once the row is stored, so a failed write leaves the index unchanged.
+    public CompletableFuture<Void> logInvestmentAsync(String username, double amount, LocalDate date, int duration,
+                                                      double rate, double projectedReturn) {
+        long[] id = new long[1]; // Set by whichever thread runs the insert
+        CompletableFuture<Void> stored;
+
+        WriteBehindQueue queue = writeBehind;
+        if (queue == null) {
+            stored = new CompletableFuture<>();
+            try (Connection conn = pool.getConnection()) {
+                id[0] = insertInvestment(conn, username, amount, date, duration, rate, projectedReturn);
+                stored.complete(null);
+            } catch (SQLException | RuntimeException e) {
+                stored.completeExceptionally(e);
+            }
+        } else {
+            stored = queue.submit(conn -> id[0] = insertInvestment(conn, username, amount, date, duration, rate, projectedReturn));
+        }
+
+        return stored.thenRun(() -> recordInvestment(username, id[0], amount, date, duration, rate, projectedReturn));
+    }
+
+    // Insert one investment row and return its generated id (0 if none was reported)
+    private static long insertInvestment(Connection conn, String username, double amount, LocalDate date, int duration,
+                                         double rate, double projectedReturn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_INVESTMENT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInvestment(pstmt, username, amount, date, duration, rate, projectedReturn);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                return keys.next() ? keys.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static void bindInvestment(PreparedStatement pstmt, String username, double amount, LocalDate date,
+                                       int duration, double rate, double projectedReturn) throws SQLException {
+        pstmt.setString(1, username);
+        pstmt.setDouble(2, amount);
+        pstmt.setString(3, date.toString());
+        pstmt.setInt(4, duration);
+        pstmt.setDouble(5, rate);
+        pstmt.setDouble(6, projectedReturn);
+        pstmt.setLong(7, date.toEpochDay() + duration);
+    }
 
-        try (Connection conn = DriverManager.getConnection(url);
+    private void recordInvestment(String username, long id, double amount, LocalDate date, int duration,
+                                  double rate, double projectedReturn) {
+        InvestmentIndex index = investmentIndexes.get(username);
+        if (index != null) {
+            index.add(new Investment(id, FinancialEntry.toMinorUnits(amount), date, duration, rate,
+                    FinancialEntry.toMinorUnits(projectedReturn)));
+        }
+    }
+
+    // Read through idx_investments_user_maturity, which already returns rows in maturity order
+    @Override
+    public List<Investment> getInvestments(String username) {
+        List<Investment> investments = new ArrayList<>();
+        query(SELECT_INVESTMENT_COLUMNS + "WHERE username = ? ORDER BY maturityDay, id",
+                RowMappers.investments(), investments::add, username);
+        return investments;
+    }
+
+    @Override
+    public InvestmentIndex getInvestmentIndex(String username) {
+        return investmentIndexes.computeIfAbsent(username, name -> InvestmentIndex.build(getInvestments(name)));
+    }
+
+    // Up to limit investments maturing after the given date, soonest first, straight
+    // from the database (a range scan on the maturity index) without building an index
+    public List<Investment> getUpcomingMaturities(String username, LocalDate after, int limit) {
+        List<Investment> investments = new ArrayList<>(Math.min(limit, 64));
+        query(SELECT_INVESTMENT_COLUMNS + "WHERE username = ? AND maturityDay > ? ORDER BY maturityDay, id LIMIT ?",
+                RowMappers.investments(), investments::add, username, after.toEpochDay(), limit);
+        return investments;
+    }
+
+    // Total maturity value in pesewas of investments maturing on or before the given date
+    public long getMaturedValueMinor(String username, LocalDate asOf) {
+        String sql = "SELECT COALESCE(SUM(CAST(ROUND(projectedReturn * 100) AS INTEGER)), 0) "
+                + "FROM Investments WHERE username = ? AND maturityDay <= ?";
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
-            pstmt.setDouble(2, amount);
-            pstmt.setString(3, date.toString());
-            pstmt.setInt(4, duration);
-            pstmt.setDouble(5, rate);
-            pstmt.setDouble(6, projectedReturn);
-            pstmt.executeUpdate();
+            pstmt.setLong(2, asOf.toEpochDay());
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
         } catch (SQLException e) {
             e.printStackTrace();
+            return 0;
         }
     }
 
@@ -1,9 +1,12 @@
 package com.campuscent;
 
+import java.time.Clock;
 import java.time.YearMonth;
 import java.time.LocalDate;
 
 public class DynamicLimit {
+    public static final double SPENDING_SHARE = 0.70; // Share of each income added to the spending allocation
+
     private double totalLimit; // Total spending allocation for the month
     private int totalDays; // Total number of days in the current month
     private int currentDay; // Current day in the month (1-indexed)
@@ -12,8 +15,15 @@ public class DynamicLimit {
     private double carryover; // Carryover amount from previous days
     private LocalDate currentDate;
     private double dailySpent;
+    private final Clock clock; // Source of "today"; a fixed or simulated clock makes the limit replayable
+    private final BudgetListenerList listeners = new BudgetListenerList(); // Receives notices; console by default
 
     public DynamicLimit() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public DynamicLimit(Clock clock) {
+        this.clock = clock;
         this.totalLimit = 0;
         this.totalDays = 0;
         this.currentDay = 1; // Start at day 1
@@ -22,25 +32,26 @@ public class DynamicLimit {
         this.carryover = 0;
         this.currentDate = null;
         this.dailySpent = 0;
+        this.listeners.add(ConsoleBudgetListener.INSTANCE);
     }
 
     // Initialize the dynamic limit with monthly spending allocation
     public void initializeLimit(double monthlySpendingAllocation) {
-        YearMonth currentMonth = YearMonth.now(); // Get the current year and month
+        YearMonth currentMonth = YearMonth.now(clock); // Get the current year and month
         this.totalLimit = monthlySpendingAllocation; // Set the total spending allocation
         this.totalDays = currentMonth.lengthOfMonth(); // Get total days in the current month
         this.dailyLimit = monthlySpendingAllocation / totalDays; // Calculate the initial daily limit
         this.spent = 0; // Reset spent amount
         this.carryover = 0; // Reset carryover amount
-        this.currentDay = LocalDate.now().getDayOfMonth(); // Start at day 1
-        this.currentDate = LocalDate.now();
+        this.currentDay = LocalDate.now(clock).getDayOfMonth(); // Start at day 1
+        this.currentDate = LocalDate.now(clock);
 
     }
 
     // Handle spending for a given day
     public void spend(double amount) {
         // Check if the real-world date has advanced
-        LocalDate today = LocalDate.now();
+        LocalDate today = LocalDate.now(clock);
         if (!today.equals(currentDate)) {
             moveToNextDay(today);
         }
@@ -48,19 +59,24 @@ public class DynamicLimit {
         dailySpent+= amount;
         spent += amount;
 
-        // Adjust the daily limit based on carryover
-        double effectiveDailyLimit = dailyLimit + carryover;
-
-        if (dailySpent > effectiveDailyLimit) {
-            System.out.println("[NOTICE] You have overspent by GHC" + String.format("%.2f", dailySpent - effectiveDailyLimit) + " today!");
-        } else {
-            System.out.println("[NOTICE] You have underspent today. Carryover will be applied at the end of the day.");
+        BudgetListener[] notify = listeners.get();
+        if (notify.length == 0) {
+            return;
         }
 
-        // Check if the total spending allocation has been exceeded
-        if (spent > totalLimit) {
-            double overspentAmount = spent - totalLimit;
-            System.out.println("[ALERT] You have exceeded your monthly spending limit by GHC" + String.format("%.2f", overspentAmount) + "!");
+        // Adjust the daily limit based on carryover
+        double effectiveDailyLimit = dailyLimit + carryover;
+        for (BudgetListener listener : notify) {
+            if (dailySpent > effectiveDailyLimit) {
+                listener.onOverspentToday(dailySpent - effectiveDailyLimit);
+            } else {
+                listener.onUnderspentToday();
+            }
+
+            // Check if the total spending allocation has been exceeded
+            if (spent > totalLimit) {
+                listener.onMonthlyLimitExceeded(spent - totalLimit);
+            }
         }
     }
 
@@ -88,25 +104,41 @@ public class DynamicLimit {
         double effectiveDailyLimit = dailyLimit + carryover;
         if (dailySpent > effectiveDailyLimit) {
             carryover = -(dailySpent - effectiveDailyLimit); // Negative carryover reduces tomorrow's limit
-            System.out.println("[NOTICE] You overspent today by GHC" + String.format("%.2f", -carryover) + ". Tomorrow's limit will be reduced.");
         } else {
             carryover = effectiveDailyLimit - dailySpent; // Positive carryover increases tomorrow's limit
-            System.out.println("[NOTICE] You underspent today by GHC" + String.format("%.2f", carryover) + ". Tomorrow's limit will increase.");
         }
 
         // Reset daily spent for the new day
         dailySpent = 0;
 
         // Move to the next day
-        if (currentDay < totalDays) {
+        boolean monthEnded = currentDay >= totalDays;
+        if (!monthEnded) {
             currentDay++;
-        } else {
-            System.out.println("[NOTICE] You have reached the end of the month.");
+        }
+
+        for (BudgetListener listener : listeners.get()) {
+            listener.onCarryoverComputed(carryover);
+            if (monthEnded) {
+                listener.onMonthEnded();
+            }
         }
     }
 
 
 
+    // Replace the current state with one rebuilt from history (see LimitRebuilder)
+    public void restore(LimitSnapshot snapshot) {
+        this.totalLimit = FinancialEntry.fromMinorUnits(snapshot.getTotalLimitMinor());
+        this.totalDays = snapshot.getTotalDays();
+        this.currentDay = snapshot.getCurrentDay();
+        this.dailyLimit = FinancialEntry.fromMinorUnits(snapshot.getDailyLimitMinor());
+        this.spent = FinancialEntry.fromMinorUnits(snapshot.getSpentMinor());
+        this.carryover = FinancialEntry.fromMinorUnits(snapshot.getCarryoverMinor());
+        this.currentDate = snapshot.getCurrentDate() != null ? snapshot.getCurrentDate() : LocalDate.now(clock);
+        this.dailySpent = FinancialEntry.fromMinorUnits(snapshot.getDailySpentMinor());
+    }
+
     // Get the current daily limit (adjusted with carryover)
     public double getDailyLimit() {
         return dailyLimit + carryover- dailySpent;
@@ -140,18 +172,47 @@ public class DynamicLimit {
         this.totalLimit = updatedSpendingAllocation; // Update the total spending allocation
 
         // Calculate the remaining days in the current month
-        LocalDate today = LocalDate.now();
+        LocalDate today = LocalDate.now(clock);
         int remainingDays = totalDays - today.getDayOfMonth() + 1;
 
         // Recalculate the daily limit based on the remaining days
         this.dailyLimit = totalLimit / remainingDays;
 
-        System.out.println("[UPDATE] Dynamic limit recalculated.");
-        System.out.println(" - Updated Total Spending Allocation: GHC" + totalLimit);
-        System.out.println(" - Remaining Days in Month: " + remainingDays);
-        System.out.println(" - New Daily Limit: GHC" + dailyLimit);
+        for (BudgetListener listener : listeners.get()) {
+            listener.onLimitUpdated(totalLimit, remainingDays, dailyLimit);
+        }
+    }
+
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void addListener(BudgetListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BudgetListener listener) {
+        listeners.remove(listener);
     }
 
+    // Listeners to notify, for subclasses that raise events themselves
+    protected BudgetListener[] getListeners() {
+        return listeners.get();
+    }
+
+    // Turn the console notices off or back on; other listeners are unaffected
+    public void setQuiet(boolean quiet) {
+        if (quiet) {
+            listeners.remove(ConsoleBudgetListener.INSTANCE);
+        } else {
+            listeners.add(ConsoleBudgetListener.INSTANCE);
+        }
+    }
+
+    public boolean isQuiet() {
+        return !listeners.contains(ConsoleBudgetListener.INSTANCE);
+    }
 
     public int getTotalDays() {
         return totalDays;
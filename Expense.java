@@ -10,6 +10,16 @@ public class Expense extends FinancialEntry {
         this.category = category;
     }
 
+    private Expense(long amountMinor, LocalDate date, Category category) {
+        super(amountMinor, date);
+        this.category = category;
+    }
+
+    // Create an expense from an amount already in pesewas
+    public static Expense ofMinorUnits(long amountMinor, LocalDate date, Category category) {
+        return new Expense(amountMinor, date, category);
+    }
+
     public Category getCategory() {
         return category;
     }
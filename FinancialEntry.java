@@ -2,22 +2,39 @@ package com.campuscent;
 import java.time.LocalDate;
 
 public abstract class FinancialEntry {
-    private double amount;
+    private long amountMinor; // Amount in pesewas (GHC1 = 100 pesewas) to avoid rounding drift
     private LocalDate date;
 
     public FinancialEntry(double amount, LocalDate date) {
-        this.amount = amount;
+        this(toMinorUnits(amount), date);
+    }
+
+    protected FinancialEntry(long amountMinor, LocalDate date) {
+        this.amountMinor = amountMinor;
         this.date = date;
     }
 
     public double getAmount() {
-        return amount;
+        return fromMinorUnits(amountMinor);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
     }
 
     public LocalDate getDate() {
         return date;
     }
 
+    // Convert cedis to pesewas, rounding to the nearest pesewa
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double fromMinorUnits(long amountMinor) {
+        return amountMinor / 100.0;
+    }
+
     
     // Abstract method for displaying details
     public abstract void displayEntryDetails();
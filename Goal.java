@@ -7,15 +7,17 @@ public class Goal implements Progressible {
     private double currentAmount;
     private String username;
     private int year;// Associate the goal with a user
+    private final BudgetListenerList listeners = new BudgetListenerList(); // Told when the goal is reached
 
     public Goal(double targetAmount, int year, String username) {
         this.targetAmount = targetAmount;
         this.currentAmount = 0;
         this.username = username;
         this.year = year;
+        this.listeners.add(ConsoleBudgetListener.INSTANCE);
     }
 
-    public void updateProgress(DatabaseHelper dbHelper, double amount) {
+    public void updateProgress(LedgerStore dbHelper, double amount) {
         this.currentAmount += amount; // Adjust the progress by the specified amount
 
         // Ensure currentAmount does not exceed the target or fall below zero
@@ -30,10 +32,20 @@ public class Goal implements Progressible {
 
         // Check if the savings goal has been reached
         if (this.currentAmount >= targetAmount) {
-            System.out.println("[CONGRATULATIONS] You have reached your savings goal of GHC" + String.format("%.2f", targetAmount) + "!");
+            for (BudgetListener listener : listeners.get()) {
+                listener.onGoalReached(targetAmount);
+            }
         }
     }
 
+    public void addListener(BudgetListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BudgetListener listener) {
+        listeners.remove(listener);
+    }
+
 
     @Override
     public double getPercentage() {
@@ -64,7 +76,7 @@ public class Goal implements Progressible {
     public void setCurrentAmount(double currentAmount) {this.currentAmount = currentAmount;}
 
     // Save the goal to the database
-    public void saveGoal(DatabaseHelper dbHelper) {
+    public void saveGoal(LedgerStore dbHelper) {
         dbHelper.addGoal(username, targetAmount, currentAmount, year);
     }
 
@@ -0,0 +1,81 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Outcome of a GoalForecaster run for one goal: the share of simulated paths
+// that reached the target by the end of the goal's year, and when they did.
+public class GoalForecast {
+    private final int year;
+    private final double targetAmount;
+    private final LocalDate startDate;
+    private final int paths;
+    private final int[] sortedCompletionDays; // Days from startDate, reaching paths only
+    private final long elapsedNanos;
+
+    public GoalForecast(int year, double targetAmount, LocalDate startDate, int[] completionDay, long elapsedNanos) {
+        this.year = year;
+        this.targetAmount = targetAmount;
+        this.startDate = startDate;
+        this.paths = completionDay.length;
+        this.sortedCompletionDays = Arrays.stream(completionDay).filter(day -> day >= 0).sorted().toArray();
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public double getTargetAmount() {
+        return targetAmount;
+    }
+
+    public int getPaths() {
+        return paths;
+    }
+
+    // Fraction of paths that reached the target by December 31
+    public double getProbability() {
+        return paths == 0 ? 0 : (double) sortedCompletionDays.length / paths;
+    }
+
+    // Average date the target is reached, among paths that reach it; null if none do
+    public LocalDate getExpectedCompletionDate() {
+        if (sortedCompletionDays.length == 0) {
+            return null;
+        }
+        long total = 0;
+        for (int day : sortedCompletionDays) {
+            total += day;
+        }
+        return startDate.plusDays(Math.round((double) total / sortedCompletionDays.length));
+    }
+
+    // Completion date at the given percentile (0-100) of reaching paths; null if none do
+    public LocalDate getCompletionDatePercentile(double percentile) {
+        int reached = sortedCompletionDays.length;
+        if (reached == 0) {
+            return null;
+        }
+        int index = (int) Math.round(percentile / 100 * (reached - 1));
+        return startDate.plusDays(sortedCompletionDays[Math.max(0, Math.min(reached - 1, index))]);
+    }
+
+    // Simulation throughput; 0 when no paths had to be simulated
+    public double getPathsPerSecond() {
+        return elapsedNanos == 0 ? 0 : paths / (elapsedNanos / 1e9);
+    }
+
+    public void print() {
+        System.out.println("Savings Goal Forecast (" + year + ", target GHC" + String.format("%.2f", targetAmount) + "):");
+        System.out.println(" - Chance of Reaching Goal: " + String.format("%.1f", getProbability() * 100) + "%");
+        LocalDate expected = getExpectedCompletionDate();
+        if (expected != null) {
+            System.out.println(" - Expected Completion: " + expected
+                    + " (p10 " + getCompletionDatePercentile(10) + ", p90 " + getCompletionDatePercentile(90) + ")");
+        }
+        if (elapsedNanos > 0) {
+            System.out.println(" - Simulated Paths: " + paths + " (" + String.format("%.0f", getPathsPerSecond()) + " paths/s)");
+        }
+    }
+}
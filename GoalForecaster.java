@@ -0,0 +1,211 @@
+package com.campuscent;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Estimates how likely a student is to reach their yearly savings goal, and
+// roughly when, by simulating many possible paths from today to the end of the
+// goal's year. Each simulated day replays a randomly chosen day from the
+// student's recent history (its income and spending together), so the paths
+// follow the student's own habits without fitting any distribution.
+//
+// Money moves as it does in the app: SPENDING_SHARE of each income goes to the
+// spending allocation and the rest to savings, and spending beyond the
+// allocation is taken back out of savings. Paths are split across cores with
+// fork/join, each with its own SplittableRandom, so results are reproducible
+// for a given seed. Amounts are in pesewas.
+public class GoalForecaster {
+    private static final int PATHS_PER_TASK = 256;
+
+    private int paths = 10_000;
+    private int lookbackDays = 180;
+    private double spendingShare = DynamicLimit.SPENDING_SHARE;
+    private long seed = 42;
+    private Clock clock = Clock.systemDefaultZone();
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    public GoalForecaster paths(int paths) {
+        this.paths = paths;
+        return this;
+    }
+
+    // How many past days to sample from
+    public GoalForecaster lookbackDays(int lookbackDays) {
+        this.lookbackDays = lookbackDays;
+        return this;
+    }
+
+    public GoalForecaster spendingShare(double spendingShare) {
+        this.spendingShare = spendingShare;
+        return this;
+    }
+
+    public GoalForecaster seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public GoalForecaster clock(Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    public GoalForecaster pool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    // Forecast a user's goal for the given year, or null if they have none
+    public GoalForecast forecast(LedgerStore store, String username, int year) {
+        Goal goal = store.getYearlyGoal(username, year);
+        if (goal == null) {
+            return null;
+        }
+        return forecast(store.getTransactionColumns(username), goal);
+    }
+
+    // Nightly batch: forecast this year's goal for every user who has one.
+    // Users are handled one after another; each forecast uses the whole pool.
+    public Map<String, GoalForecast> forecastAll(LedgerStore store) {
+        int year = LocalDate.now(clock).getYear();
+        Map<String, GoalForecast> forecasts = new LinkedHashMap<>();
+        for (User user : store.getUsers()) {
+            GoalForecast forecast = forecast(store, user.getUsername(), year);
+            if (forecast != null) {
+                forecasts.put(user.getUsername(), forecast);
+            }
+        }
+        return forecasts;
+    }
+
+    public GoalForecast forecast(TransactionColumns history, Goal goal) {
+        LocalDate today = LocalDate.now(clock);
+        long targetMinor = FinancialEntry.toMinorUnits(goal.getTargetAmount());
+        long savedMinor = FinancialEntry.toMinorUnits(goal.getCurrentAmount());
+        int horizonDays = (int) Math.max(0, LocalDate.of(goal.getYear(), 12, 31).toEpochDay() - today.toEpochDay());
+
+        History sample = History.of(history, today, lookbackDays);
+        int[] completionDay = new int[paths]; // Days from today until the target is reached; -1 if never
+
+        long elapsedNanos = 0; // Stays 0 when there is nothing to simulate
+        if (savedMinor >= targetMinor) {
+            // Already reached; every path completes today
+        } else if (sample.days == 0 || horizonDays == 0) {
+            Arrays.fill(completionDay, -1);
+        } else {
+            Simulation simulation = new Simulation(sample, savedMinor, targetMinor, horizonDays, completionDay);
+            long start = System.nanoTime();
+            pool.invoke(new Slice(simulation, 0, paths));
+            elapsedNanos = System.nanoTime() - start;
+        }
+
+        return new GoalForecast(goal.getYear(), goal.getTargetAmount(), today, completionDay, elapsedNanos);
+    }
+
+    // Income and spending for each of the last lookbackDays days, one entry
+    // per day including days with no transactions
+    private static final class History {
+        final long[] incomeMinor;
+        final long[] expenseMinor;
+        final int days;
+
+        private History(long[] incomeMinor, long[] expenseMinor) {
+            this.incomeMinor = incomeMinor;
+            this.expenseMinor = expenseMinor;
+            this.days = incomeMinor.length;
+        }
+
+        static History of(TransactionColumns columns, LocalDate today, int lookbackDays) {
+            long toDay = today.toEpochDay() - 1; // Today is not over yet
+            long fromDay = toDay - lookbackDays + 1;
+            if (columns.size() > 0) {
+                fromDay = Math.max(fromDay, columns.getEpochDay(0)); // Don't sample days before they started
+            }
+            int days = (int) Math.max(0, toDay - fromDay + 1);
+            long[] income = new long[days];
+            long[] expense = new long[days];
+
+            int incomeCode = TransactionType.INCOME.ordinal();
+            TransactionColumns.Cursor cursor = columns.cursor().reset(fromDay, toDay);
+            while (cursor.next()) {
+                int index = (int) (cursor.epochDay() - fromDay);
+                if (cursor.typeCode() == incomeCode) {
+                    income[index] += cursor.amountMinor();
+                } else {
+                    expense[index] += cursor.amountMinor();
+                }
+            }
+            return new History(income, expense);
+        }
+    }
+
+    private final class Simulation {
+        final History history;
+        final long savedMinor;
+        final long targetMinor;
+        final int horizonDays;
+        final int[] completionDay;
+
+        Simulation(History history, long savedMinor, long targetMinor, int horizonDays, int[] completionDay) {
+            this.history = history;
+            this.savedMinor = savedMinor;
+            this.targetMinor = targetMinor;
+            this.horizonDays = horizonDays;
+            this.completionDay = completionDay;
+        }
+
+        void run(int path) {
+            SplittableRandom random = new SplittableRandom(seed * 1_000_003L + path);
+            long saved = savedMinor;
+            long allocation = 0; // Spending allocation not yet used
+            for (int day = 1; day <= horizonDays; day++) {
+                int sampled = random.nextInt(history.days);
+                long income = history.incomeMinor[sampled];
+                long spendPart = Math.round(income * spendingShare);
+                allocation += spendPart - history.expenseMinor[sampled];
+                saved += income - spendPart;
+                if (allocation < 0) {
+                    saved = Math.max(0, saved + allocation); // Overspending is covered from savings
+                    allocation = 0;
+                }
+                if (saved >= targetMinor) {
+                    completionDay[path] = day;
+                    return;
+                }
+            }
+            completionDay[path] = -1;
+        }
+    }
+
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Simulation simulation;
+        private final int from;
+        private final int to;
+
+        Slice(Simulation simulation, int from, int to) {
+            this.simulation = simulation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PATHS_PER_TASK) {
+                for (int path = from; path < to; path++) {
+                    simulation.run(path);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(simulation, from, mid), new Slice(simulation, mid, to));
+        }
+    }
+}
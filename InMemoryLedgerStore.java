@@ -0,0 +1,470 @@
+package com.campuscent;
+
+import com.campuscent.utils.AuthenticationHelper;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// LedgerStore kept entirely in memory, for simulations, load tests and
+// benchmarks that should not touch the disk. Each user's transactions are
+// held in a TransactionColumns ledger sorted by (date, id), so range reads
+// and category totals are plain loops over primitive arrays. Users are
+// independent: every ledger has its own read/write lock.
+public class InMemoryLedgerStore implements LedgerStore {
+    private final ConcurrentHashMap<String, String> users = new ConcurrentHashMap<>(); // username -> hashed password
+    private final ConcurrentHashMap<String, UserLedger> ledgers = new ConcurrentHashMap<>();
+    private final AtomicLong nextTransactionId = new AtomicLong(1);
+    private final ConcurrentHashMap<String, CategoryAccumulator> accumulators = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DailySpendIndex> spendIndexes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, InvestmentIndex> investmentIndexes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<YearMonth, LimitSnapshot>> limitSnapshots = new ConcurrentHashMap<>();
+    private volatile Clock clock = Clock.systemDefaultZone(); // Passed to the per-user accumulators and indexes
+
+    @Override
+    public void addUser(String username, String plainPassword) {
+        String hashedPassword = AuthenticationHelper.hashPassword(plainPassword);
+        if (users.putIfAbsent(username, hashedPassword) != null) {
+            // Same message SQLite produces, so callers can handle both stores alike
+            throw new RuntimeException("UNIQUE constraint failed: Users.username");
+        }
+    }
+
+    @Override
+    public void updatePassword(String username, String plainPassword) {
+        users.replace(username, AuthenticationHelper.hashPassword(plainPassword));
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        String password = users.get(username);
+        return password == null ? null : new User(username, password);
+    }
+
+    @Override
+    public List<User> getUsers() {
+        List<User> result = new ArrayList<>(users.size());
+        users.forEach((username, password) -> result.add(new User(username, password)));
+        return result;
+    }
+
+    @Override
+    public void addTransaction(FinancialEntry entry, String username) {
+        ledger(username).addTransaction(nextTransactionId.getAndIncrement(), entry);
+        recordLiveTotals(username, entry);
+        dropStaleLimitSnapshot(username, entry);
+    }
+
+    @Override
+    public BatchResult addTransactions(List<? extends FinancialEntry> entries, String username) {
+        BatchResult result = new BatchResult();
+        UserLedger ledger = ledger(username);
+        for (int i = 0; i < entries.size(); i++) {
+            FinancialEntry entry = entries.get(i);
+            String problem = DatabaseHelper.validateTransaction(entry);
+            if (problem != null) {
+                result.recordFailure(i, entry, problem);
+            } else {
+                ledger.addTransaction(nextTransactionId.getAndIncrement(), entry);
+                recordLiveTotals(username, entry);
+                dropStaleLimitSnapshot(username, entry);
+                result.recordInserted(i);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<FinancialEntry> getTransactions(String username) {
+        List<FinancialEntry> transactions = new ArrayList<>();
+        forEachTransaction(new TransactionQuery(username), (id, entry) -> transactions.add(entry));
+        return transactions;
+    }
+
+    // The handler runs while the user's ledger is read-locked, so it must not
+    // write to the same user's ledger
+    @Override
+    public int forEachTransaction(TransactionQuery query, TransactionHandler handler) {
+        UserLedger ledger = ledgers.get(query.getUsername());
+        return ledger == null ? 0 : ledger.forEach(query, handler);
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotals(String username, LocalDate from, LocalDate to) {
+        UserLedger ledger = ledgers.get(username);
+        return ledger == null ? new ArrayList<>() : ledger.totals(from, to, false);
+    }
+
+    @Override
+    public List<CategoryTotal> getMonthlyCategoryTotals(String username, LocalDate from, LocalDate to) {
+        UserLedger ledger = ledgers.get(username);
+        return ledger == null ? new ArrayList<>() : ledger.totals(from, to, true);
+    }
+
+    @Override
+    public void logTransaction(User user, FinancialEntry transaction) {
+        user.addTransaction(transaction);
+        addTransaction(transaction, user.getUsername());
+    }
+
+    // Clock that decides "today" and the current month for the accumulators and
+    // spend indexes; set it before they are built (normally at startup)
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public CategoryAccumulator getCategoryAccumulator(String username) {
+        return accumulators.computeIfAbsent(username,
+                name -> CategoryAccumulator.seed(getMonthlyCategoryTotals(name, null, null), clock));
+    }
+
+    // Daily spend index for a user, built from the full history on first use
+    // and kept current by every transaction added here
+    @Override
+    public DailySpendIndex getDailySpendIndex(String username) {
+        return spendIndexes.computeIfAbsent(username,
+                name -> DailySpendIndex.build(getTransactionColumns(name), clock));
+    }
+
+    private void recordLiveTotals(String username, FinancialEntry entry) {
+        CategoryAccumulator accumulator = accumulators.get(username);
+        if (accumulator != null) {
+            accumulator.record(entry);
+        }
+        DailySpendIndex spendIndex = spendIndexes.get(username);
+        if (spendIndex != null) {
+            spendIndex.record(entry);
+        }
+    }
+
+    @Override
+    public LimitSnapshot getLimitSnapshot(String username, YearMonth month) {
+        ConcurrentHashMap<YearMonth, LimitSnapshot> snapshots = limitSnapshots.get(username);
+        return snapshots == null ? null : snapshots.get(month);
+    }
+
+    @Override
+    public void saveLimitSnapshot(String username, LimitSnapshot snapshot) {
+        if (snapshot.getLastDate() == null) {
+            return; // Nothing replayed yet
+        }
+        limitSnapshots.computeIfAbsent(username, name -> new ConcurrentHashMap<>()).put(snapshot.getMonth(), snapshot);
+    }
+
+    // A transaction dated before a snapshot's last row would be skipped by replay,
+    // so the snapshot is dropped (same rule as the trigger in SchemaMigrator v5)
+    private void dropStaleLimitSnapshot(String username, FinancialEntry entry) {
+        ConcurrentHashMap<YearMonth, LimitSnapshot> snapshots = limitSnapshots.get(username);
+        if (snapshots != null) {
+            snapshots.computeIfPresent(YearMonth.from(entry.getDate()),
+                    (month, snapshot) -> snapshot.getLastDate() != null && entry.getDate().isBefore(snapshot.getLastDate())
+                            ? null : snapshot);
+        }
+    }
+
+    @Override
+    public boolean hasYearlyGoal(String username, int year) {
+        return getYearlyGoal(username, year) != null;
+    }
+
+    @Override
+    public void addGoal(String username, double targetAmount, double currentAmount, int year) {
+        ledger(username).addGoal(targetAmount, currentAmount, year);
+    }
+
+    @Override
+    public List<Goal> getGoals(String username) {
+        UserLedger ledger = ledgers.get(username);
+        return ledger == null ? new ArrayList<>() : ledger.goals(username, -1);
+    }
+
+    @Override
+    public Goal getSavingsGoal(String username) {
+        return getYearlyGoal(username, LocalDate.now(clock).getYear());
+    }
+
+    @Override
+    public Goal getYearlyGoal(String username, int year) {
+        UserLedger ledger = ledgers.get(username);
+        if (ledger == null) {
+            return null;
+        }
+        List<Goal> goals = ledger.goals(username, year);
+        return goals.isEmpty() ? null : goals.get(0);
+    }
+
+    @Override
+    public void updateGoalProgress(String username, double targetAmount, double currentAmount) {
+        UserLedger ledger = ledgers.get(username);
+        if (ledger != null) {
+            ledger.updateGoalProgress(targetAmount, currentAmount);
+        }
+    }
+
+    @Override
+    public void logInvestment(String username, double amount, LocalDate date, int duration, double rate, double projectedReturn) {
+        Investment investment = ledger(username).addInvestment(amount, date, duration, rate, projectedReturn);
+        InvestmentIndex index = investmentIndexes.get(username);
+        if (index != null) {
+            index.add(investment);
+        }
+    }
+
+    @Override
+    public List<Investment> getInvestments(String username) {
+        UserLedger ledger = ledgers.get(username);
+        if (ledger == null) {
+            return new ArrayList<>();
+        }
+        return InvestmentIndex.build(ledger.investments()).getAll();
+    }
+
+    @Override
+    public InvestmentIndex getInvestmentIndex(String username) {
+        return investmentIndexes.computeIfAbsent(username, name -> {
+            UserLedger ledger = ledgers.get(name);
+            return InvestmentIndex.build(ledger == null ? new ArrayList<>() : ledger.investments());
+        });
+    }
+
+    @Override
+    public TransactionColumns getTransactionColumns(String username) {
+        UserLedger ledger = ledgers.get(username);
+        return ledger == null ? new TransactionColumns() : ledger.copyTransactions();
+    }
+
+    // Number of investments recorded for a user
+    public int getInvestmentCount(String username) {
+        UserLedger ledger = ledgers.get(username);
+        return ledger == null ? 0 : ledger.investmentCount();
+    }
+
+    @Override
+    public void close() {
+        users.clear();
+        ledgers.clear();
+        accumulators.clear();
+        spendIndexes.clear();
+        investmentIndexes.clear();
+        limitSnapshots.clear();
+    }
+
+    private UserLedger ledger(String username) {
+        return ledgers.computeIfAbsent(username, name -> new UserLedger());
+    }
+
+    // All data for one user, stored column by column
+    private static final class UserLedger {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TransactionColumns transactions = new TransactionColumns();
+
+        // Goals, in insertion order
+        private double[] goalTarget = new double[2];
+        private double[] goalCurrent = new double[2];
+        private int[] goalYear = new int[2];
+        private int goalCount;
+
+        // Investments, in insertion order
+        private double[] investmentAmount = new double[4];
+        private int[] investmentDay = new int[4];
+        private int[] investmentDuration = new int[4];
+        private double[] investmentRate = new double[4];
+        private double[] investmentReturn = new double[4];
+        private int investmentCount;
+
+        void addTransaction(long id, FinancialEntry entry) {
+            lock.writeLock().lock();
+            try {
+                transactions.add(id, entry);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        TransactionColumns copyTransactions() {
+            lock.readLock().lock();
+            try {
+                TransactionColumns copy = new TransactionColumns(transactions.size());
+                TransactionColumns.Cursor cursor = transactions.cursor();
+                while (cursor.next()) {
+                    copy.add(cursor.id(), cursor.amountMinor(), cursor.epochDay(), cursor.typeCode(), cursor.categoryCode());
+                }
+                return copy;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int forEach(TransactionQuery query, TransactionHandler handler) {
+            int wantedType = query.getType() == null ? -1 : query.getType().ordinal();
+            int wantedCategory = query.getCategoryCode();
+            long fromDay = query.getFrom() == null ? Long.MIN_VALUE : query.getFrom().toEpochDay();
+            long toDay = query.getTo() == null ? Long.MAX_VALUE : query.getTo().toEpochDay();
+            int limit = query.getLimit() == 0 ? Integer.MAX_VALUE : query.getLimit();
+            int count = 0;
+
+            lock.readLock().lock();
+            try {
+                if (query.getAfterDate() != null) {
+                    fromDay = Math.max(fromDay, query.getAfterDate().toEpochDay());
+                }
+                TransactionColumns.Cursor cursor = transactions.cursor().reset(fromDay, toDay);
+                while (count < limit && cursor.next()) {
+                    if (query.getAfterDate() != null && cursor.epochDay() == query.getAfterDate().toEpochDay()
+                            && cursor.id() <= query.getAfterId()) {
+                        continue;
+                    }
+                    if ((wantedType >= 0 && cursor.typeCode() != wantedType)
+                            || (wantedCategory >= 0 && cursor.categoryCode() != wantedCategory)) {
+                        continue;
+                    }
+                    handler.handle(cursor.id(), transactions.toEntry(cursor.index()));
+                    count++;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return count;
+        }
+
+        List<CategoryTotal> totals(LocalDate from, LocalDate to, boolean byMonth) {
+            int types = TransactionType.values().length;
+            int categories = Math.max(Category.values().length, IncomeCategory.values().length);
+            long[] sum = new long[types * categories];
+            int[] count = new int[types * categories];
+            long[] min = new long[types * categories];
+            long[] max = new long[types * categories];
+            List<CategoryTotal> totals = new ArrayList<>();
+            long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+            long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+
+            lock.readLock().lock();
+            try {
+                TransactionColumns.Cursor cursor = transactions.cursor().reset(fromDay, toDay);
+                YearMonth month = null;
+                long monthEnd = Long.MIN_VALUE;
+
+                while (cursor.next()) {
+                    if (byMonth && cursor.epochDay() > monthEnd) {
+                        // Rows are in date order, so each month's totals are finished here
+                        if (month != null) {
+                            collect(totals, month, sum, count, min, max, categories);
+                        }
+                        month = YearMonth.from(LocalDate.ofEpochDay(cursor.epochDay()));
+                        monthEnd = month.atEndOfMonth().toEpochDay();
+                    }
+
+                    int slot = cursor.typeCode() * categories + cursor.categoryCode();
+                    long amount = cursor.amountMinor();
+                    if (count[slot] == 0) {
+                        min[slot] = amount;
+                        max[slot] = amount;
+                    } else {
+                        min[slot] = Math.min(min[slot], amount);
+                        max[slot] = Math.max(max[slot], amount);
+                    }
+                    sum[slot] += amount;
+                    count[slot]++;
+                }
+                collect(totals, byMonth ? month : null, sum, count, min, max, categories);
+            } finally {
+                lock.readLock().unlock();
+            }
+            return totals;
+        }
+
+        private static void collect(List<CategoryTotal> totals, YearMonth month, long[] sum, int[] count,
+                                    long[] min, long[] max, int categories) {
+            TransactionType[] types = TransactionType.values();
+            for (int slot = 0; slot < count.length; slot++) {
+                if (count[slot] > 0) {
+                    totals.add(new CategoryTotal(types[slot / categories], slot % categories, month,
+                            sum[slot], count[slot], min[slot], max[slot]));
+                    sum[slot] = 0;
+                    count[slot] = 0;
+                }
+            }
+        }
+
+        synchronized void addGoal(double targetAmount, double currentAmount, int year) {
+            if (goalCount == goalYear.length) {
+                goalTarget = Arrays.copyOf(goalTarget, goalCount * 2);
+                goalCurrent = Arrays.copyOf(goalCurrent, goalCount * 2);
+                goalYear = Arrays.copyOf(goalYear, goalCount * 2);
+            }
+            goalTarget[goalCount] = targetAmount;
+            goalCurrent[goalCount] = currentAmount;
+            goalYear[goalCount] = year;
+            goalCount++;
+        }
+
+        // Goals for the given year, or all goals when year is -1
+        synchronized List<Goal> goals(String username, int year) {
+            List<Goal> goals = new ArrayList<>();
+            for (int i = 0; i < goalCount; i++) {
+                if (year == -1 || goalYear[i] == year) {
+                    Goal goal = new Goal(goalTarget[i], goalYear[i], username);
+                    goal.setCurrentAmount(goalCurrent[i]);
+                    goals.add(goal);
+                }
+            }
+            return goals;
+        }
+
+        // Matches the SQLite behaviour: every goal with this target is updated
+        synchronized void updateGoalProgress(double targetAmount, double currentAmount) {
+            for (int i = 0; i < goalCount; i++) {
+                if (goalTarget[i] == targetAmount) {
+                    goalCurrent[i] = currentAmount;
+                }
+            }
+        }
+
+        // Store an investment; its id is its position in the user's list, from 1
+        synchronized Investment addInvestment(double amount, LocalDate date, int duration, double rate, double projectedReturn) {
+            if (investmentCount == investmentDay.length) {
+                int capacity = investmentCount * 2;
+                investmentAmount = Arrays.copyOf(investmentAmount, capacity);
+                investmentDay = Arrays.copyOf(investmentDay, capacity);
+                investmentDuration = Arrays.copyOf(investmentDuration, capacity);
+                investmentRate = Arrays.copyOf(investmentRate, capacity);
+                investmentReturn = Arrays.copyOf(investmentReturn, capacity);
+            }
+            investmentAmount[investmentCount] = amount;
+            investmentDay[investmentCount] = (int) date.toEpochDay();
+            investmentDuration[investmentCount] = duration;
+            investmentRate[investmentCount] = rate;
+            investmentReturn[investmentCount] = projectedReturn;
+            investmentCount++;
+            return investment(investmentCount - 1);
+        }
+
+        synchronized List<Investment> investments() {
+            List<Investment> investments = new ArrayList<>(investmentCount);
+            for (int i = 0; i < investmentCount; i++) {
+                investments.add(investment(i));
+            }
+            return investments;
+        }
+
+        private Investment investment(int i) {
+            return new Investment(i + 1, FinancialEntry.toMinorUnits(investmentAmount[i]),
+                    LocalDate.ofEpochDay(investmentDay[i]), investmentDuration[i], investmentRate[i],
+                    FinancialEntry.toMinorUnits(investmentReturn[i]));
+        }
+
+        synchronized int investmentCount() {
+            return investmentCount;
+        }
+    }
+}
@@ -9,6 +9,16 @@ public class Income extends FinancialEntry {
         this.category = category;
     }
 
+    private Income(long amountMinor, LocalDate date, IncomeCategory category) {
+        super(amountMinor, date);
+        this.category = category;
+    }
+
+    // Create an income from an amount already in pesewas
+    public static Income ofMinorUnits(long amountMinor, LocalDate date, IncomeCategory category) {
+        return new Income(amountMinor, date, category);
+    }
+
 
     public IncomeCategory getCategory() {return category;}
 
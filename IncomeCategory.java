@@ -1,5 +1,6 @@
 package com.campuscent;
 
+// Stored by ordinal in the Transactions table: only add new values at the end
 public enum IncomeCategory {
     SALARY,
     FREELANCE,
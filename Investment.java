@@ -0,0 +1,65 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+
+// One treasury bill position from the Investments table. Amounts are in
+// pesewas; the maturity value is the projected return recorded when the
+// investment was made.
+public class Investment {
+    private final long id;
+    private final long principalMinor;
+    private final LocalDate date;
+    private final int duration;
+    private final double rate;
+    private final long maturityValueMinor;
+
+    public Investment(long id, long principalMinor, LocalDate date, int duration, double rate, long maturityValueMinor) {
+        this.id = id;
+        this.principalMinor = principalMinor;
+        this.date = date;
+        this.duration = duration;
+        this.rate = rate;
+        this.maturityValueMinor = maturityValueMinor;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getPrincipalMinor() {
+        return principalMinor;
+    }
+
+    public double getPrincipal() {
+        return FinancialEntry.fromMinorUnits(principalMinor);
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    // Tenor in days
+    public int getDuration() {
+        return duration;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public long getMaturityValueMinor() {
+        return maturityValueMinor;
+    }
+
+    public double getMaturityValue() {
+        return FinancialEntry.fromMinorUnits(maturityValueMinor);
+    }
+
+    public LocalDate getMaturityDate() {
+        return date.plusDays(duration);
+    }
+
+    public long getMaturityDay() {
+        return date.toEpochDay() + duration;
+    }
+}
@@ -0,0 +1,161 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// A user's investments ordered by maturity date (date + duration). Positions
+// sit in a TreeMap keyed by maturity day, so the next N maturities after a
+// date cost O(log n + N). Principal and maturity value are also summed in
+// Fenwick trees keyed by maturity day (as in DailySpendIndex), so "how much
+// has matured by this date" is O(log n) however many positions there are.
+// Amounts are in pesewas.
+public class InvestmentIndex {
+    private static final int INITIAL_DAYS = 512;
+
+    private final TreeMap<Long, List<Investment>> byMaturity = new TreeMap<>();
+    private int size;
+
+    private long originDay;  // Maturity day stored at position 1 of both trees
+    private int capacity;    // Number of days covered; always a power of two
+    private long[] principal;
+    private long[] maturityValue;
+
+    public InvestmentIndex() {
+        capacity = INITIAL_DAYS;
+        principal = new long[capacity + 1];
+        maturityValue = new long[capacity + 1];
+    }
+
+    public static InvestmentIndex build(List<Investment> investments) {
+        InvestmentIndex index = new InvestmentIndex();
+        for (Investment investment : investments) {
+            index.add(investment);
+        }
+        return index;
+    }
+
+    public synchronized void add(Investment investment) {
+        long day = investment.getMaturityDay();
+        if (size == 0) {
+            originDay = day;
+        }
+        if (day < originDay) {
+            rebase(day);
+        }
+        while (day - originDay >= capacity) {
+            grow();
+        }
+
+        int position = (int) (day - originDay) + 1;
+        update(principal, position, investment.getPrincipalMinor());
+        update(maturityValue, position, investment.getMaturityValueMinor());
+        byMaturity.computeIfAbsent(day, key -> new ArrayList<>(1)).add(investment);
+        size++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Total maturity value of positions maturing on or before the given date
+    public synchronized long getMaturedValueMinor(LocalDate asOf) {
+        return sumThrough(maturityValue, asOf.toEpochDay());
+    }
+
+    // Principal of positions maturing on or before the given date
+    public synchronized long getMaturedPrincipalMinor(LocalDate asOf) {
+        return sumThrough(principal, asOf.toEpochDay());
+    }
+
+    // Principal still invested after the given date
+    public synchronized long getOutstandingPrincipalMinor(LocalDate asOf) {
+        return sumThrough(principal, Long.MAX_VALUE) - sumThrough(principal, asOf.toEpochDay());
+    }
+
+    public double getMaturedValue(LocalDate asOf) {
+        return FinancialEntry.fromMinorUnits(getMaturedValueMinor(asOf));
+    }
+
+    // Up to limit positions maturing after the given date, soonest first
+    public synchronized List<Investment> getUpcomingMaturities(LocalDate after, int limit) {
+        List<Investment> upcoming = new ArrayList<>(Math.min(limit, size));
+        for (Map.Entry<Long, List<Investment>> day : byMaturity.tailMap(after.toEpochDay(), false).entrySet()) {
+            for (Investment investment : day.getValue()) {
+                if (upcoming.size() == limit) {
+                    return upcoming;
+                }
+                upcoming.add(investment);
+            }
+        }
+        return upcoming;
+    }
+
+    // Every position, soonest maturity first
+    public synchronized List<Investment> getAll() {
+        List<Investment> all = new ArrayList<>(size);
+        for (List<Investment> day : byMaturity.values()) {
+            all.addAll(day);
+        }
+        return all;
+    }
+
+    private long sumThrough(long[] tree, long day) {
+        if (size == 0 || day < originDay) {
+            return 0;
+        }
+        long last = Math.min(day - originDay, capacity - 1);
+        return prefixSum(tree, (int) last + 1);
+    }
+
+    private static void update(long[] tree, int position, long delta) {
+        for (int i = position; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private static long prefixSum(long[] tree, int position) {
+        long sum = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Double the covered days; see DailySpendIndex.grow
+    private void grow() {
+        int newCapacity = capacity * 2;
+        principal = extend(principal, newCapacity);
+        maturityValue = extend(maturityValue, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private long[] extend(long[] tree, int newCapacity) {
+        long[] extended = Arrays.copyOf(tree, newCapacity + 1);
+        extended[newCapacity] = prefixSum(tree, capacity);
+        return extended;
+    }
+
+    // A position maturing before the origin: rebuild both trees from the TreeMap
+    private void rebase(long newOriginDay) {
+        int newCapacity = capacity;
+        while (newCapacity < capacity + (originDay - newOriginDay)) {
+            newCapacity *= 2;
+        }
+
+        principal = new long[newCapacity + 1];
+        maturityValue = new long[newCapacity + 1];
+        capacity = newCapacity;
+        originDay = newOriginDay;
+        for (Map.Entry<Long, List<Investment>> day : byMaturity.entrySet()) {
+            int position = (int) (day.getKey() - originDay) + 1;
+            for (Investment investment : day.getValue()) {
+                update(principal, position, investment.getPrincipalMinor());
+                update(maturityValue, position, investment.getMaturityValueMinor());
+            }
+        }
+    }
+}
@@ -5,20 +5,20 @@ import java.util.Scanner;
 
 public class InvestmentManager {
 
-    // Get rate for treasury bill period
+    // Get today's rate for treasury bill period
     public static double getRateForPeriod(int days) {
-        return switch (days) {
-            case 91 -> 26.8293;  // 91-day rate
-            case 182 -> 27.7876; // 182-day rate
-            case 364 -> 29.2178; // 364-day rate
-            default -> throw new IllegalArgumentException("Invalid period. Use 91, 182, or 364 days.");
-        };
+        return getRateForPeriod(days, LocalDate.now());
+    }
+
+    // Rate that was in force for the period on the given date (see TreasuryRateTable)
+    public static double getRateForPeriod(int days, LocalDate date) {
+        return TreasuryRateTable.shared().getRate(days, date);
     }
 
 
 
     // Prompt user and handle the split between savings and investment
-    public static void splitAndAllocateSavings(double incomeAmount, User user, DatabaseHelper dbHelper) {
+    public static void splitAndAllocateSavings(double incomeAmount, User user, LedgerStore dbHelper) {
         double savingsAllocation = incomeAmount * 0.70;
         double investmentAllocation = incomeAmount * 0.30;
 
@@ -0,0 +1,131 @@
+package com.campuscent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Projects treasury bill outcomes for many portfolios in one call, without
+// prompting. Inputs are parallel columns (principal, rate in percent, days),
+// one entry per portfolio, and results are written into an output column.
+// Large batches are split across cores with fork/join; each slice is a plain
+// loop over the arrays, so nothing is allocated per portfolio.
+//
+// Maturity values use the same simple-interest formula as
+// InvestmentManager.calculateInvestmentReturn and give identical results.
+public class InvestmentProjector {
+    private static final int PORTFOLIOS_PER_TASK = 8192;
+    private static final double DAYS_PER_YEAR = 365.0;
+
+    private final ForkJoinPool pool;
+
+    public InvestmentProjector() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public InvestmentProjector(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Value at maturity of each bill held once for its term (simple interest)
+    public double[] maturityValues(double[] principal, double[] rate, int[] days) {
+        double[] out = new double[principal.length];
+        maturityValues(principal, rate, days, out);
+        return out;
+    }
+
+    public void maturityValues(double[] principal, double[] rate, int[] days, double[] out) {
+        checkColumns(principal.length, rate.length, days.length, out.length);
+        run(principal.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out[i] = principal[i] * (1 + (rate[i] / 100.0 * (days[i] / DAYS_PER_YEAR)));
+            }
+        });
+    }
+
+    // Value after rolling a bill of tenorDays over for as many full terms as fit
+    // in horizonDays, reinvesting principal and interest each time. Days left
+    // over at the end of the horizon earn nothing. Four 91-day rollovers against
+    // one 364-day bill is rolloverValues(p, rate91, 91, 364) vs maturityValues.
+    public double[] rolloverValues(double[] principal, double[] rate, int[] tenorDays, int[] horizonDays) {
+        double[] out = new double[principal.length];
+        rolloverValues(principal, rate, tenorDays, horizonDays, out);
+        return out;
+    }
+
+    public void rolloverValues(double[] principal, double[] rate, int[] tenorDays, int[] horizonDays, double[] out) {
+        checkColumns(principal.length, rate.length, tenorDays.length, horizonDays.length, out.length);
+        run(principal.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int rolls = tenorDays[i] > 0 ? horizonDays[i] / tenorDays[i] : 0;
+                double perTerm = 1 + (rate[i] / 100.0 * (tenorDays[i] / DAYS_PER_YEAR));
+                out[i] = principal[i] * Math.pow(perTerm, rolls);
+            }
+        });
+    }
+
+    // Same term and rate as maturityValues, but with interest compounded
+    // periodsPerYear times a year (e.g. 12 for monthly, 365 for daily)
+    public double[] compoundedValues(double[] principal, double[] rate, int[] days, int periodsPerYear) {
+        double[] out = new double[principal.length];
+        compoundedValues(principal, rate, days, periodsPerYear, out);
+        return out;
+    }
+
+    public void compoundedValues(double[] principal, double[] rate, int[] days, int periodsPerYear, double[] out) {
+        if (periodsPerYear <= 0) {
+            throw new IllegalArgumentException("Compounding periods per year must be positive.");
+        }
+        checkColumns(principal.length, rate.length, days.length, out.length);
+        run(principal.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                double periodRate = rate[i] / 100.0 / periodsPerYear;
+                double periods = periodsPerYear * (days[i] / DAYS_PER_YEAR);
+                out[i] = principal[i] * Math.exp(periods * Math.log1p(periodRate));
+            }
+        });
+    }
+
+    private static void checkColumns(int principals, int... others) {
+        for (int length : others) {
+            if (length != principals) {
+                throw new IllegalArgumentException("All projection columns must have the same length.");
+            }
+        }
+    }
+
+    private void run(int length, Kernel kernel) {
+        if (length <= PORTFOLIOS_PER_TASK) {
+            kernel.apply(0, length); // Not worth handing to the pool
+        } else {
+            pool.invoke(new Slice(kernel, 0, length));
+        }
+    }
+
+    // Work on portfolios [from, to)
+    private interface Kernel {
+        void apply(int from, int to);
+    }
+
+    private static final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Kernel kernel;
+        private final int from;
+        private final int to;
+
+        Slice(Kernel kernel, int from, int to) {
+            this.kernel = kernel;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PORTFOLIOS_PER_TASK) {
+                kernel.apply(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(kernel, from, mid), new Slice(kernel, mid, to));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.campuscent;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+// Times the scalar InvestmentManager.calculateInvestmentReturn loop against
+// InvestmentProjector.maturityValues on the same randomly generated portfolios
+// and prints both. Rates are looked up once per tenor, so only the projection
+// itself is timed.
+//
+//   java com.campuscent.InvestmentProjectorBenchmark [portfolios] [threads]
+public class InvestmentProjectorBenchmark {
+    private static final int[] TERMS = {91, 182, 364};
+
+    public static void main(String[] args) {
+        int portfolios = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        ForkJoinPool pool = args.length > 1 ? new ForkJoinPool(Integer.parseInt(args[1])) : ForkJoinPool.commonPool();
+        run(new InvestmentProjector(pool), pool.getParallelism(), portfolios);
+    }
+
+    static void run(InvestmentProjector projector, int threads, int portfolios) {
+        double[] termRates = new double[TERMS.length];
+        for (int t = 0; t < TERMS.length; t++) {
+            termRates[t] = InvestmentManager.getRateForPeriod(TERMS[t]);
+        }
+
+        double[] principal = new double[portfolios];
+        double[] rate = new double[portfolios];
+        int[] days = new int[portfolios];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < portfolios; i++) {
+            int term = random.nextInt(TERMS.length);
+            days[i] = TERMS[term];
+            rate[i] = termRates[term];
+            principal[i] = 100 + random.nextInt(100_000) / 100.0;
+        }
+
+        double[] scalar = new double[portfolios];
+        double[] batch = new double[portfolios];
+        long scalarNanos = Long.MAX_VALUE;
+        long batchNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) { // Best of five, so the JIT has warmed up
+            long start = System.nanoTime();
+            for (int i = 0; i < portfolios; i++) {
+                scalar[i] = InvestmentManager.calculateInvestmentReturn(principal[i], rate[i], days[i]);
+            }
+            scalarNanos = Math.min(scalarNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            projector.maturityValues(principal, rate, days, batch);
+            batchNanos = Math.min(batchNanos, System.nanoTime() - start);
+        }
+
+        boolean match = Arrays.equals(scalar, batch);
+        System.out.println("Investment Projection Benchmark (" + portfolios + " portfolios, " + threads + " threads):");
+        System.out.println(" - Scalar: " + String.format("%.2f", scalarNanos / 1e6) + "ms");
+        System.out.println(" - Batch: " + String.format("%.2f", batchNanos / 1e6) + "ms");
+        System.out.println(" - Speedup: " + String.format("%.1f", (double) scalarNanos / Math.max(1, batchNanos)) + "x"
+                + (match ? "" : " (results differ!)"));
+    }
+}
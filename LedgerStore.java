@@ -0,0 +1,84 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+// Storage operations used by the rest of the application. DatabaseHelper is
+// the SQLite implementation; InMemoryLedgerStore keeps everything in memory
+// for simulations, load tests and benchmarks.
+public interface LedgerStore extends AutoCloseable {
+
+    // Receives transactions one at a time, together with their row id
+    @FunctionalInterface
+    interface TransactionHandler {
+        void handle(long id, FinancialEntry entry);
+    }
+
+    // Users
+    void addUser(String username, String plainPassword);
+
+    void updatePassword(String username, String plainPassword);
+
+    User getUserByUsername(String username);
+
+    List<User> getUsers();
+
+    // Transactions
+    void addTransaction(FinancialEntry entry, String username);
+
+    BatchResult addTransactions(List<? extends FinancialEntry> entries, String username);
+
+    List<FinancialEntry> getTransactions(String username);
+
+    // Full history in columnar form, without creating an object per transaction
+    TransactionColumns getTransactionColumns(String username);
+
+    int forEachTransaction(TransactionQuery query, TransactionHandler handler);
+
+    List<CategoryTotal> getCategoryTotals(String username, LocalDate from, LocalDate to);
+
+    List<CategoryTotal> getMonthlyCategoryTotals(String username, LocalDate from, LocalDate to);
+
+    void logTransaction(User user, FinancialEntry transaction);
+
+    // Live running totals for a user, seeded on first use and kept current by
+    // every transaction added through the store
+    CategoryAccumulator getCategoryAccumulator(String username);
+
+    // Per-day expense totals for fast date-range spend queries, kept current
+    // the same way as the category accumulator
+    DailySpendIndex getDailySpendIndex(String username);
+
+    // Latest saved DynamicLimit state for a user and month, or null
+    LimitSnapshot getLimitSnapshot(String username, YearMonth month);
+
+    void saveLimitSnapshot(String username, LimitSnapshot snapshot);
+
+    // Goals
+    boolean hasYearlyGoal(String username, int year);
+
+    void addGoal(String username, double targetAmount, double currentAmount, int year);
+
+    List<Goal> getGoals(String username);
+
+    Goal getSavingsGoal(String username);
+
+    Goal getYearlyGoal(String username, int year);
+
+    void updateGoalProgress(String username, double targetAmount, double currentAmount);
+
+    // Investments
+    void logInvestment(String username, double amount, LocalDate date, int duration, double rate, double projectedReturn);
+
+    // A user's investments, soonest maturity first
+    List<Investment> getInvestments(String username);
+
+    // Investments ordered by maturity for matured-to-date and upcoming-maturity
+    // queries, built on first use and kept current by logInvestment
+    InvestmentIndex getInvestmentIndex(String username);
+
+    // Release any resources held by the store
+    @Override
+    void close();
+}
@@ -0,0 +1,145 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Rebuilds a user's DynamicLimit at login from the month's Income and Expense
+// rows, so the budget survives restarts. Replay starts from the latest saved
+// LimitSnapshot and only reads the rows after it; a new snapshot is saved once
+// enough rows have been replayed, and every snapshotInterval transactions
+// logged during a session, so the tail replayed at login stays short.
+//
+// Replay follows the same rules as the live limit: an income adds
+// DynamicLimit.SPENDING_SHARE of its amount to the allocation and spreads it
+// over the days left in the month; an expense on a new date first closes the
+// previous day, carrying over what was left (or the overspend).
+public class LimitRebuilder {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 200;
+
+    private final LedgerStore store;
+    private final int snapshotInterval;
+    private final ConcurrentHashMap<String, AtomicInteger> loggedSinceSnapshot = new ConcurrentHashMap<>();
+
+    public LimitRebuilder(LedgerStore store) {
+        this(store, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    public LimitRebuilder(LedgerStore store, int snapshotInterval) {
+        this.store = store;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    // Load the current month's budget state into limit
+    public LimitSnapshot rebuild(String username, DynamicLimit limit) {
+        LimitSnapshot state = replay(username, YearMonth.now(limit.getClock()));
+        limit.restore(state);
+        loggedSinceSnapshot.remove(username);
+        return state;
+    }
+
+    // Budget state for a month, from the latest snapshot plus the rows after it
+    public LimitSnapshot replay(String username, YearMonth month) {
+        LimitSnapshot base = latestSnapshot(username, month);
+        LimitSnapshot state = replayAfter(username, base);
+        if (state.getRowCount() - base.getRowCount() >= snapshotInterval) {
+            store.saveLimitSnapshot(username, state);
+        }
+        return state;
+    }
+
+    // Call after each transaction logged in a session. Every snapshotInterval
+    // calls the month's snapshot is brought up to date.
+    public void onTransactionLogged(String username, DynamicLimit limit) {
+        AtomicInteger count = loggedSinceSnapshot.computeIfAbsent(username, name -> new AtomicInteger());
+        if (count.incrementAndGet() >= snapshotInterval) {
+            count.set(0);
+            LimitSnapshot base = latestSnapshot(username, YearMonth.now(limit.getClock()));
+            LimitSnapshot state = replayAfter(username, base);
+            if (state.getRowCount() > base.getRowCount()) {
+                store.saveLimitSnapshot(username, state);
+            }
+        }
+    }
+
+    private LimitSnapshot latestSnapshot(String username, YearMonth month) {
+        LimitSnapshot base = store.getLimitSnapshot(username, month);
+        return base == null ? LimitSnapshot.startOf(month) : base;
+    }
+
+    // Apply the month's rows after base, without saving anything
+    private LimitSnapshot replayAfter(String username, LimitSnapshot base) {
+        YearMonth month = base.getMonth();
+        Replay replay = new Replay(base);
+        TransactionQuery query = new TransactionQuery(username).between(month.atDay(1), month.atEndOfMonth());
+        if (base.getLastDate() != null) {
+            query.after(base.getLastDate(), base.getLastId());
+        }
+        store.forEachTransaction(query, replay::apply);
+        return replay.toSnapshot();
+    }
+
+    // Running state while rows are applied in (date, id) order
+    private static final class Replay {
+        private final YearMonth month;
+        private final int totalDays;
+        private LocalDate lastDate;
+        private long lastId;
+        private int rowCount;
+        private long totalLimitMinor;
+        private long dailyLimitMinor;
+        private long spentMinor;
+        private long dailySpentMinor;
+        private long carryoverMinor;
+        private int currentDay;
+        private LocalDate currentDate;
+
+        Replay(LimitSnapshot from) {
+            month = from.getMonth();
+            totalDays = from.getTotalDays();
+            lastDate = from.getLastDate();
+            lastId = from.getLastId();
+            rowCount = from.getRowCount();
+            totalLimitMinor = from.getTotalLimitMinor();
+            dailyLimitMinor = from.getDailyLimitMinor();
+            spentMinor = from.getSpentMinor();
+            dailySpentMinor = from.getDailySpentMinor();
+            carryoverMinor = from.getCarryoverMinor();
+            currentDay = from.getCurrentDay();
+            currentDate = from.getCurrentDate();
+        }
+
+        void apply(long id, FinancialEntry entry) {
+            LocalDate date = entry.getDate();
+            if (currentDate == null) {
+                currentDate = date; // Tracking starts with the month's first transaction
+                currentDay = date.getDayOfMonth();
+            }
+
+            if (entry instanceof Income) {
+                totalLimitMinor += Math.round(entry.getAmountMinor() * DynamicLimit.SPENDING_SHARE);
+                int remainingDays = Math.max(1, totalDays - date.getDayOfMonth() + 1);
+                dailyLimitMinor = totalLimitMinor / remainingDays;
+            } else {
+                if (!date.equals(currentDate)) {
+                    carryoverMinor = dailyLimitMinor + carryoverMinor - dailySpentMinor;
+                    dailySpentMinor = 0;
+                    currentDay = date.getDayOfMonth();
+                    currentDate = date;
+                }
+                dailySpentMinor += entry.getAmountMinor();
+                spentMinor += entry.getAmountMinor();
+            }
+
+            lastDate = date;
+            lastId = id;
+            rowCount++;
+        }
+
+        LimitSnapshot toSnapshot() {
+            return new LimitSnapshot(month, lastDate, lastId, rowCount, totalLimitMinor, dailyLimitMinor,
+                    spentMinor, dailySpentMinor, carryoverMinor, currentDay, currentDate);
+        }
+    }
+}
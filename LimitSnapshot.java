@@ -0,0 +1,92 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+// DynamicLimit state for one user and month, as rebuilt from that month's
+// transactions up to and including row (lastDate, lastId). Replaying the rows
+// after that position from this state gives the same result as replaying the
+// whole month. Amounts are in pesewas.
+public class LimitSnapshot {
+    private final YearMonth month;
+    private final LocalDate lastDate; // Null when no row has been applied yet
+    private final long lastId;
+    private final int rowCount;
+    private final long totalLimitMinor;
+    private final long dailyLimitMinor;
+    private final long spentMinor;
+    private final long dailySpentMinor;
+    private final long carryoverMinor;
+    private final int currentDay;
+    private final LocalDate currentDate; // Day being tracked; null before the first row
+
+    public LimitSnapshot(YearMonth month, LocalDate lastDate, long lastId, int rowCount,
+                         long totalLimitMinor, long dailyLimitMinor, long spentMinor, long dailySpentMinor,
+                         long carryoverMinor, int currentDay, LocalDate currentDate) {
+        this.month = month;
+        this.lastDate = lastDate;
+        this.lastId = lastId;
+        this.rowCount = rowCount;
+        this.totalLimitMinor = totalLimitMinor;
+        this.dailyLimitMinor = dailyLimitMinor;
+        this.spentMinor = spentMinor;
+        this.dailySpentMinor = dailySpentMinor;
+        this.carryoverMinor = carryoverMinor;
+        this.currentDay = currentDay;
+        this.currentDate = currentDate;
+    }
+
+    // State at the start of a month, before any transaction
+    public static LimitSnapshot startOf(YearMonth month) {
+        return new LimitSnapshot(month, null, 0, 0, 0, 0, 0, 0, 0, 1, null);
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    // Number of transactions replayed to reach this state
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getTotalLimitMinor() {
+        return totalLimitMinor;
+    }
+
+    public long getDailyLimitMinor() {
+        return dailyLimitMinor;
+    }
+
+    public long getSpentMinor() {
+        return spentMinor;
+    }
+
+    public long getDailySpentMinor() {
+        return dailySpentMinor;
+    }
+
+    public long getCarryoverMinor() {
+        return carryoverMinor;
+    }
+
+    public int getCurrentDay() {
+        return currentDay;
+    }
+
+    public LocalDate getCurrentDate() {
+        return currentDate;
+    }
+
+    public int getTotalDays() {
+        return month.lengthOfMonth();
+    }
+}
@@ -1,25 +1,45 @@
 package com.campuscent;
 
+import com.campuscent.utils.AuthenticationExecutor;
 import com.campuscent.utils.AuthenticationHelper;
 
 public class LoginController {
-    private DatabaseHelper dbHelper;
+    private LedgerStore dbHelper;
 
-    public LoginController(DatabaseHelper dbHelper) {
+    public LoginController(LedgerStore dbHelper) {
         this.dbHelper = dbHelper;
     }
 
     // Login method
     public String login(String username, String plainPassword) {
         User user = dbHelper.getUserByUsername(username);
-        if (user != null && AuthenticationHelper.verifyPassword(plainPassword, user.getHashedPassword())) {
-            return SessionManager.createSession(username); // Return session ID
+        try {
+            if (user != null && AuthenticationHelper.verifyPassword(plainPassword, user.getHashedPassword())) {
+                rehashIfStale(user, plainPassword);
+                return SessionStore.shared().createSession(username); // Return session ID
+            }
+        } catch (AuthenticationExecutor.BusyException e) {
+            System.out.println("[ERROR] " + e.getMessage() + " Please try again in a moment.");
         }
         return null; // Authentication failed
     }
 
+    // Upgrade a hash made at an older, lower cost now that the plain password is known.
+    // Runs in the background; if the executor is busy it is simply retried at the next login.
+    private void rehashIfStale(User user, String plainPassword) {
+        if (AuthenticationHelper.needsRehash(user.getHashedPassword())) {
+            AuthenticationExecutor.shared().tryExecute(() -> {
+                try {
+                    dbHelper.updatePassword(user.getUsername(), plainPassword);
+                } catch (RuntimeException e) {
+                    System.out.println("Could not upgrade password hash for " + user.getUsername() + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
     // Logout method
     public void logout(String sessionId) {
-        SessionManager.invalidateSession(sessionId);
+        SessionStore.shared().invalidateSession(sessionId);
     }
 }
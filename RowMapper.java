@@ -0,0 +1,20 @@
+package com.campuscent;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Turns the rows of one query into objects. bind() runs once per result set to
+// look up column positions, so map() reads every row by index. A malformed row
+// is reported to the RejectSink and map() returns null instead of throwing.
+public interface RowMapper<T> {
+
+    // Receives rows that could not be decoded
+    @FunctionalInterface
+    interface RejectSink {
+        void reject(String table, String reason);
+    }
+
+    void bind(ResultSet rs) throws SQLException;
+
+    T map(ResultSet rs, RejectSink rejects) throws SQLException;
+}
@@ -0,0 +1,202 @@
+package com.campuscent;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// Row mappers for the tables DatabaseHelper reads. Each query gets a fresh
+// mapper, since it holds the column positions of that query's result set.
+// Enum codes are decoded through the lookup tables below rather than
+// values() (which copies the array) or valueOf() (which throws on bad data).
+public final class RowMappers {
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final Category[] CATEGORIES = Category.values();
+    private static final IncomeCategory[] INCOME_CATEGORIES = IncomeCategory.values();
+    private static final int EXPENSE = TransactionType.EXPENSE.ordinal();
+
+    private RowMappers() {
+    }
+
+    public static TransactionMapper transactions() {
+        return new TransactionMapper();
+    }
+
+    public static RowMapper<Goal> goals() {
+        return new GoalMapper();
+    }
+
+    public static RowMapper<User> users() {
+        return new UserMapper();
+    }
+
+    public static RowMapper<Investment> investments() {
+        return new InvestmentMapper();
+    }
+
+    // Check a stored (typeCode, categoryCode) pair; returns the problem, or null if valid
+    static String checkCodes(int typeCode, int categoryCode) {
+        if (typeCode < 0 || typeCode >= TYPES.length) {
+            return "unknown type code " + typeCode;
+        }
+        int categories = typeCode == EXPENSE ? CATEGORIES.length : INCOME_CATEGORIES.length;
+        if (categoryCode < 0 || categoryCode >= categories) {
+            return "unknown " + TYPES[typeCode].getLabel().toLowerCase() + " category code " + categoryCode;
+        }
+        return null;
+    }
+
+    // Transactions rows: id, amountMinor, epochDay, typeCode, categoryCode
+    public static final class TransactionMapper implements RowMapper<FinancialEntry> {
+        private int idColumn;
+        private int amountColumn;
+        private int dayColumn;
+        private int typeColumn;
+        private int categoryColumn;
+
+        private TransactionMapper() {
+        }
+
+        @Override
+        public void bind(ResultSet rs) throws SQLException {
+            idColumn = rs.findColumn("id");
+            amountColumn = rs.findColumn("amountMinor");
+            dayColumn = rs.findColumn("epochDay");
+            typeColumn = rs.findColumn("typeCode");
+            categoryColumn = rs.findColumn("categoryCode");
+        }
+
+        @Override
+        public FinancialEntry map(ResultSet rs, RejectSink rejects) throws SQLException {
+            int typeCode = rs.getInt(typeColumn);
+            int categoryCode = rs.getInt(categoryColumn);
+            String problem = checkCodes(typeCode, categoryCode);
+            if (problem != null) {
+                rejects.reject("Transactions", "id " + rs.getLong(idColumn) + ": " + problem);
+                return null;
+            }
+
+            long amountMinor = rs.getLong(amountColumn);
+            LocalDate date = LocalDate.ofEpochDay(rs.getLong(dayColumn));
+            return typeCode == EXPENSE
+                    ? Expense.ofMinorUnits(amountMinor, date, CATEGORIES[categoryCode])
+                    : Income.ofMinorUnits(amountMinor, date, INCOME_CATEGORIES[categoryCode]);
+        }
+
+        public long id(ResultSet rs) throws SQLException {
+            return rs.getLong(idColumn);
+        }
+
+        // Append the current row to columns without creating an entry object.
+        // Returns false if the row was rejected.
+        public boolean readInto(ResultSet rs, TransactionColumns columns, RejectSink rejects) throws SQLException {
+            int typeCode = rs.getInt(typeColumn);
+            int categoryCode = rs.getInt(categoryColumn);
+            String problem = checkCodes(typeCode, categoryCode);
+            if (problem != null) {
+                rejects.reject("Transactions", "id " + rs.getLong(idColumn) + ": " + problem);
+                return false;
+            }
+            columns.add(rs.getLong(idColumn), rs.getLong(amountColumn), rs.getInt(dayColumn), typeCode, categoryCode);
+            return true;
+        }
+    }
+
+    // Goals rows: username, targetAmount, currentAmount, year
+    private static final class GoalMapper implements RowMapper<Goal> {
+        private int usernameColumn;
+        private int targetColumn;
+        private int currentColumn;
+        private int yearColumn;
+
+        @Override
+        public void bind(ResultSet rs) throws SQLException {
+            usernameColumn = rs.findColumn("username");
+            targetColumn = rs.findColumn("targetAmount");
+            currentColumn = rs.findColumn("currentAmount");
+            yearColumn = rs.findColumn("year");
+        }
+
+        @Override
+        public Goal map(ResultSet rs, RejectSink rejects) throws SQLException {
+            String username = rs.getString(usernameColumn);
+            double targetAmount = rs.getDouble(targetColumn);
+            boolean missingTarget = rs.wasNull();
+            double currentAmount = rs.getDouble(currentColumn);
+            int year = rs.getInt(yearColumn);
+            boolean missingYear = rs.wasNull();
+            if (username == null || missingTarget || missingYear) {
+                rejects.reject("Goals", "goal for " + username + " is missing its target or year");
+                return null;
+            }
+
+            Goal goal = new Goal(targetAmount, year, username);
+            goal.setCurrentAmount(currentAmount);
+            return goal;
+        }
+    }
+
+    // Users rows: username, password (hashed)
+    private static final class UserMapper implements RowMapper<User> {
+        private int usernameColumn;
+        private int passwordColumn;
+
+        @Override
+        public void bind(ResultSet rs) throws SQLException {
+            usernameColumn = rs.findColumn("username");
+            passwordColumn = rs.findColumn("password");
+        }
+
+        @Override
+        public User map(ResultSet rs, RejectSink rejects) throws SQLException {
+            String username = rs.getString(usernameColumn);
+            String password = rs.getString(passwordColumn);
+            if (username == null || password == null) {
+                rejects.reject("Users", "user " + username + " has no username or password hash");
+                return null;
+            }
+            return new User(username, password);
+        }
+    }
+
+    // Investments rows: id, amount, date, duration, rate, projectedReturn
+    private static final class InvestmentMapper implements RowMapper<Investment> {
+        private int idColumn;
+        private int amountColumn;
+        private int dateColumn;
+        private int durationColumn;
+        private int rateColumn;
+        private int returnColumn;
+
+        @Override
+        public void bind(ResultSet rs) throws SQLException {
+            idColumn = rs.findColumn("id");
+            amountColumn = rs.findColumn("amount");
+            dateColumn = rs.findColumn("date");
+            durationColumn = rs.findColumn("duration");
+            rateColumn = rs.findColumn("rate");
+            returnColumn = rs.findColumn("projectedReturn");
+        }
+
+        @Override
+        public Investment map(ResultSet rs, RejectSink rejects) throws SQLException {
+            long id = rs.getLong(idColumn);
+            String date = rs.getString(dateColumn);
+            int duration = rs.getInt(durationColumn);
+            if (date == null || duration <= 0) {
+                rejects.reject("Investments", "investment " + id + " has no date or duration");
+                return null;
+            }
+
+            LocalDate start;
+            try {
+                start = LocalDate.parse(date);
+            } catch (DateTimeParseException e) {
+                rejects.reject("Investments", "investment " + id + " has an unreadable date '" + date + "'");
+                return null;
+            }
+            return new Investment(id, FinancialEntry.toMinorUnits(rs.getDouble(amountColumn)), start, duration,
+                    rs.getDouble(rateColumn), FinancialEntry.toMinorUnits(rs.getDouble(returnColumn)));
+        }
+    }
+}
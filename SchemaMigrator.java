@@ -0,0 +1,350 @@
+package com.campuscent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Upgrades campuscent.db in place. The schema version is kept in
+// PRAGMA user_version; each migration runs in its own transaction together
+// with the version bump, so a failed upgrade leaves the file at the last
+// good version. New schema changes are added to the end of the list.
+public class SchemaMigrator {
+
+    @FunctionalInterface
+    public interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    // MonthlyRollup contents computed from Transactions (month is stored as yyyymm)
+    static final String ROLLUP_SELECT_SQL = """
+            SELECT username, CAST(strftime('%Y%m', epochDay * 86400, 'unixepoch') AS INTEGER) AS month,
+                   typeCode, categoryCode, SUM(amountMinor), COUNT(*), MIN(amountMinor), MAX(amountMinor)
+            FROM Transactions
+            GROUP BY username, month, typeCode, categoryCode
+            """;
+
+    static final String REBUILD_ROLLUP_SQL =
+            "INSERT INTO MonthlyRollup (username, month, typeCode, categoryCode, sumMinor, count, minMinor, maxMinor) "
+            + ROLLUP_SELECT_SQL;
+
+    private final List<Migration> migrations = new ArrayList<>();
+
+    public SchemaMigrator() {
+        // Version 1: the original tables. Uses IF NOT EXISTS so databases created
+        // before versioning (user_version = 0) are adopted without changes.
+        register(1, "Create base tables", conn -> execute(conn,
+                """
+                CREATE TABLE IF NOT EXISTS Users (
+                    username TEXT PRIMARY KEY,
+                    password TEXT NOT NULL
+                );
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS Goals (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    username TEXT NOT NULL,
+                    targetAmount REAL NOT NULL,
+                    currentAmount REAL DEFAULT 0,
+                    year INTEGER NOT NULL,
+                    FOREIGN KEY (username) REFERENCES Users(username)
+                );
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS Transactions (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    username TEXT NOT NULL,
+                    amount REAL NOT NULL,
+                    date TEXT NOT NULL,
+                    type TEXT NOT NULL,
+                    category TEXT,
+                    FOREIGN KEY (username) REFERENCES Users(username)
+                );
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS Investments (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    username TEXT NOT NULL,
+                    amount REAL NOT NULL,
+                    date TEXT NOT NULL,
+                    duration INTEGER NOT NULL,
+                    rate REAL NOT NULL,
+                    projectedReturn REAL NOT NULL,
+                    FOREIGN KEY (username) REFERENCES Users(username)
+                );
+                """));
+
+        // Version 2: indexes for the per-user lookups in DatabaseHelper
+        register(2, "Index transactions and goals by user", conn -> execute(conn,
+                "CREATE INDEX IF NOT EXISTS idx_transactions_user_date ON Transactions (username, date, id)",
+                "CREATE INDEX IF NOT EXISTS idx_goals_user_year ON Goals (username, year)"));
+
+        // Version 3: store transactions as integers (pesewas, epoch days, enum codes)
+        register(3, "Store transactions in compact integer form", SchemaMigrator::compactTransactions);
+
+        // Version 4: per-user monthly totals, kept current by triggers so every insert
+        // or delete updates them inside the same transaction as the Transactions row
+        register(4, "Add monthly category rollup", conn -> {
+            execute(conn,
+                    """
+                    CREATE TABLE MonthlyRollup (
+                        username TEXT NOT NULL,
+                        month INTEGER NOT NULL,
+                        typeCode INTEGER NOT NULL,
+                        categoryCode INTEGER NOT NULL,
+                        sumMinor INTEGER NOT NULL,
+                        count INTEGER NOT NULL,
+                        minMinor INTEGER NOT NULL,
+                        maxMinor INTEGER NOT NULL,
+                        PRIMARY KEY (username, month, typeCode, categoryCode)
+                    ) WITHOUT ROWID;
+                    """,
+                    """
+                    CREATE TRIGGER trg_transactions_rollup_insert AFTER INSERT ON Transactions
+                    BEGIN
+                        INSERT INTO MonthlyRollup (username, month, typeCode, categoryCode, sumMinor, count, minMinor, maxMinor)
+                        VALUES (NEW.username, CAST(strftime('%Y%m', NEW.epochDay * 86400, 'unixepoch') AS INTEGER),
+                                NEW.typeCode, NEW.categoryCode, NEW.amountMinor, 1, NEW.amountMinor, NEW.amountMinor)
+                        ON CONFLICT (username, month, typeCode, categoryCode) DO UPDATE SET
+                            sumMinor = sumMinor + excluded.sumMinor,
+                            count = count + 1,
+                            minMinor = MIN(minMinor, excluded.minMinor),
+                            maxMinor = MAX(maxMinor, excluded.maxMinor);
+                    END;
+                    """,
+                    // Deletes are rare, so the affected group is simply recomputed
+                    """
+                    CREATE TRIGGER trg_transactions_rollup_delete AFTER DELETE ON Transactions
+                    BEGIN
+                        DELETE FROM MonthlyRollup
+                        WHERE username = OLD.username
+                          AND month = CAST(strftime('%Y%m', OLD.epochDay * 86400, 'unixepoch') AS INTEGER)
+                          AND typeCode = OLD.typeCode AND categoryCode = OLD.categoryCode;
+                        INSERT INTO MonthlyRollup (username, month, typeCode, categoryCode, sumMinor, count, minMinor, maxMinor)
+                        SELECT username, CAST(strftime('%Y%m', epochDay * 86400, 'unixepoch') AS INTEGER) AS month,
+                               typeCode, categoryCode, SUM(amountMinor), COUNT(*), MIN(amountMinor), MAX(amountMinor)
+                        FROM Transactions
+                        WHERE username = OLD.username AND typeCode = OLD.typeCode AND categoryCode = OLD.categoryCode
+                          AND strftime('%Y%m', epochDay * 86400, 'unixepoch') = strftime('%Y%m', OLD.epochDay * 86400, 'unixepoch')
+                        GROUP BY month;
+                    END;
+                    """,
+                    REBUILD_ROLLUP_SQL);
+        });
+
+        // Version 5: saved DynamicLimit state per user and month (see LimitRebuilder).
+        // A snapshot only covers rows up to (lastEpochDay, lastId), so inserting or
+        // deleting a row dated before that point drops it and the next login replays
+        // the month from the start.
+        register(5, "Add budget limit snapshots", conn -> execute(conn,
+                """
+                CREATE TABLE LimitSnapshots (
+                    username TEXT NOT NULL,
+                    month INTEGER NOT NULL,
+                    lastEpochDay INTEGER NOT NULL,
+                    lastId INTEGER NOT NULL,
+                    rowCount INTEGER NOT NULL,
+                    totalLimitMinor INTEGER NOT NULL,
+                    dailyLimitMinor INTEGER NOT NULL,
+                    spentMinor INTEGER NOT NULL,
+                    dailySpentMinor INTEGER NOT NULL,
+                    carryoverMinor INTEGER NOT NULL,
+                    currentDay INTEGER NOT NULL,
+                    currentEpochDay INTEGER,
+                    PRIMARY KEY (username, month)
+                ) WITHOUT ROWID;
+                """,
+                """
+                CREATE TRIGGER trg_transactions_snapshot_insert AFTER INSERT ON Transactions
+                BEGIN
+                    DELETE FROM LimitSnapshots
+                    WHERE username = NEW.username
+                      AND month = CAST(strftime('%Y%m', NEW.epochDay * 86400, 'unixepoch') AS INTEGER)
+                      AND lastEpochDay > NEW.epochDay;
+                END;
+                """,
+                """
+                CREATE TRIGGER trg_transactions_snapshot_delete AFTER DELETE ON Transactions
+                BEGIN
+                    DELETE FROM LimitSnapshots
+                    WHERE username = OLD.username
+                      AND month = CAST(strftime('%Y%m', OLD.epochDay * 86400, 'unixepoch') AS INTEGER)
+                      AND lastEpochDay >= OLD.epochDay;
+                END;
+                """));
+
+        // Version 6: store each investment's maturity as an epoch day and index it per
+        // user, so matured totals and upcoming maturities are range scans (see InvestmentIndex)
+        register(6, "Index investments by maturity", conn -> execute(conn,
+                "ALTER TABLE Investments ADD COLUMN maturityDay INTEGER",
+                "UPDATE Investments SET maturityDay = CAST(julianday(date) - 2440587.5 AS INTEGER) + duration",
+                "CREATE INDEX idx_investments_user_maturity ON Investments (username, maturityDay, id)"));
+    }
+
+    // Add a migration; versions must be registered in increasing order
+    public void register(int version, String description, MigrationStep step) {
+        if (!migrations.isEmpty() && migrations.get(migrations.size() - 1).version >= version) {
+            throw new IllegalArgumentException("Migration versions must increase: " + version);
+        }
+        migrations.add(new Migration(version, description, step));
+    }
+
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version;
+    }
+
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Apply every migration newer than the database's current version
+    public void migrate(Connection conn) throws SQLException {
+        int current = getCurrentVersion(conn);
+        int latest = getLatestVersion();
+
+        if (current > latest) {
+            throw new SQLException("Database schema version " + current
+                    + " is newer than this application supports (" + latest + ").");
+        }
+
+        for (Migration migration : migrations) {
+            if (migration.version <= current) {
+                continue;
+            }
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                migration.step.apply(conn);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA user_version = " + migration.version);
+                }
+                conn.commit();
+                System.out.println("[DB] Applied migration " + migration.version + ": " + migration.description);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw new SQLException("Migration " + migration.version + " (" + migration.description + ") failed: "
+                        + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    // Copy Transactions into the integer layout. Rows that cannot be decoded are
+    // moved to Transactions_rejected with their original text instead of being lost.
+    private static void compactTransactions(Connection conn) throws SQLException {
+        execute(conn,
+                """
+                CREATE TABLE Transactions_compact (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    username TEXT NOT NULL,
+                    amountMinor INTEGER NOT NULL,
+                    epochDay INTEGER NOT NULL,
+                    typeCode INTEGER NOT NULL,
+                    categoryCode INTEGER NOT NULL,
+                    FOREIGN KEY (username) REFERENCES Users(username)
+                );
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS Transactions_rejected (
+                    id INTEGER PRIMARY KEY,
+                    username TEXT,
+                    amount REAL,
+                    date TEXT,
+                    type TEXT,
+                    category TEXT
+                );
+                """);
+
+        String select = "SELECT id, username, amount, date, type, category FROM Transactions";
+        String insert = "INSERT INTO Transactions_compact (id, username, amountMinor, epochDay, typeCode, categoryCode) VALUES (?, ?, ?, ?, ?, ?)";
+        String reject = "INSERT INTO Transactions_rejected (id, username, amount, date, type, category) VALUES (?, ?, ?, ?, ?, ?)";
+        int rejected = 0;
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(select);
+             PreparedStatement insertStmt = conn.prepareStatement(insert);
+             PreparedStatement rejectStmt = conn.prepareStatement(reject)) {
+            while (rs.next()) {
+                long id = rs.getLong("id");
+                String username = rs.getString("username");
+                double amount = rs.getDouble("amount");
+                String date = rs.getString("date");
+                String type = rs.getString("type");
+                String category = rs.getString("category");
+
+                try {
+                    long epochDay = LocalDate.parse(date).toEpochDay();
+                    int typeCode;
+                    int categoryCode;
+                    if ("Expense".equalsIgnoreCase(type)) {
+                        typeCode = TransactionType.EXPENSE.ordinal();
+                        categoryCode = Category.valueOf(category).ordinal();
+                    } else if ("Income".equalsIgnoreCase(type)) {
+                        typeCode = TransactionType.INCOME.ordinal();
+                        categoryCode = IncomeCategory.valueOf(category).ordinal();
+                    } else {
+                        throw new IllegalArgumentException("Unknown type " + type);
+                    }
+
+                    insertStmt.setLong(1, id);
+                    insertStmt.setString(2, username);
+                    insertStmt.setLong(3, FinancialEntry.toMinorUnits(amount));
+                    insertStmt.setLong(4, epochDay);
+                    insertStmt.setInt(5, typeCode);
+                    insertStmt.setInt(6, categoryCode);
+                    insertStmt.addBatch();
+                } catch (RuntimeException e) {
+                    rejectStmt.setLong(1, id);
+                    rejectStmt.setString(2, username);
+                    rejectStmt.setDouble(3, amount);
+                    rejectStmt.setString(4, date);
+                    rejectStmt.setString(5, type);
+                    rejectStmt.setString(6, category);
+                    rejectStmt.addBatch();
+                    rejected++;
+                }
+            }
+            insertStmt.executeBatch();
+            rejectStmt.executeBatch();
+        }
+
+        execute(conn,
+                "DROP INDEX IF EXISTS idx_transactions_user_date",
+                "DROP TABLE Transactions",
+                "ALTER TABLE Transactions_compact RENAME TO Transactions",
+                "CREATE INDEX idx_transactions_user_day ON Transactions (username, epochDay, id)");
+
+        if (rejected > 0) {
+            System.out.println("[DB] " + rejected + " unreadable transaction(s) moved to Transactions_rejected.");
+        }
+    }
+
+    static void execute(Connection conn, String... sqlStatements) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : sqlStatements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.campuscent;
+
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Login sessions, safe for concurrent use. A session ends when it has been
+// idle too long, when it reaches its absolute lifetime, when it is invalidated,
+// or when its user opens more than the allowed number of sessions (the oldest
+// goes first). Checking a session is a single map lookup. Expired sessions are
+// removed by a hashed timing wheel: each session sits in the slot for its
+// deadline, and a background tick only looks at the slot that is due, so no
+// sweep over every session is ever needed. Activity does not move a session in
+// the wheel; a session found still active when its slot comes up is put back
+// in the slot for its new deadline.
+public class SessionStore {
+    public static final long DEFAULT_IDLE_TTL_MS = 30 * 60 * 1000;
+    public static final long DEFAULT_ABSOLUTE_TTL_MS = 12 * 60 * 60 * 1000;
+    public static final int DEFAULT_MAX_SESSIONS_PER_USER = 5;
+    public static final long DEFAULT_TICK_MS = 1000;
+    public static final int DEFAULT_WHEEL_SIZE = 4096; // Slots; one round covers about 68 minutes at 1s ticks
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static volatile SessionStore shared;
+
+    private static final class Session {
+        final String id;
+        final String username;
+        final long createdAtNanos;
+        volatile long lastAccessNanos;
+        volatile long scheduledTick; // Wheel tick the session is due to be checked at
+
+        Session(String id, String username, long now) {
+            this.id = id;
+            this.username = username;
+            this.createdAtNanos = now;
+            this.lastAccessNanos = now;
+        }
+    }
+
+    private final long idleTtlNanos;
+    private final long absoluteTtlNanos;
+    private final int maxSessionsPerUser;
+    private final long tickNanos;
+    private final long startNanos;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ArrayDeque<Session>> sessionsByUser = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<ConcurrentLinkedQueue<Session>> wheel;
+    private volatile long currentTick; // Last tick processed; only advanced by the wheel thread
+    private final ScheduledExecutorService ticker;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong validations = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+    private final AtomicLong expiredIdle = new AtomicLong();
+    private final AtomicLong expiredAbsolute = new AtomicLong();
+    private final AtomicLong evictedOverCap = new AtomicLong();
+    private final AtomicLong wheelVisits = new AtomicLong();
+
+    public SessionStore() {
+        this(DEFAULT_IDLE_TTL_MS, DEFAULT_ABSOLUTE_TTL_MS, DEFAULT_MAX_SESSIONS_PER_USER, DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public SessionStore(long idleTtlMillis, long absoluteTtlMillis, int maxSessionsPerUser, long tickMillis, int wheelSize) {
+        this.idleTtlNanos = TimeUnit.MILLISECONDS.toNanos(idleTtlMillis);
+        this.absoluteTtlNanos = TimeUnit.MILLISECONDS.toNanos(absoluteTtlMillis);
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.startNanos = System.nanoTime();
+        this.wheel = new AtomicReferenceArray<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.set(i, new ConcurrentLinkedQueue<>());
+        }
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "campuscent-session-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Store used by LoginController and App, created with the defaults on first use
+    public static SessionStore shared() {
+        SessionStore store = shared;
+        if (store == null) {
+            synchronized (SessionStore.class) {
+                store = shared;
+                if (store == null) {
+                    store = new SessionStore();
+                    shared = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    // Open a session for a user and return its id. If the user is over the
+    // session cap, their oldest sessions are ended.
+    public String createSession(String username) {
+        long now = System.nanoTime();
+        Session session = new Session(newSessionId(), username, now);
+        sessions.put(session.id, session);
+
+        ArrayDeque<Session> evicted = new ArrayDeque<>(0);
+        sessionsByUser.compute(username, (name, userSessions) -> {
+            ArrayDeque<Session> list = userSessions == null ? new ArrayDeque<>() : userSessions;
+            list.addLast(session);
+            while (list.size() > maxSessionsPerUser) {
+                evicted.add(list.pollFirst());
+            }
+            return list;
+        });
+        for (Session old : evicted) {
+            if (sessions.remove(old.id, old)) {
+                evictedOverCap.incrementAndGet();
+            }
+        }
+
+        schedule(session, deadline(session));
+        created.incrementAndGet();
+        return session.id;
+    }
+
+    // True if the session exists and has not expired; counts as activity for the idle timeout
+    public boolean isSessionValid(String sessionId) {
+        validations.incrementAndGet();
+        if (sessionId == null) {
+            return false;
+        }
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        if (expire(session, now)) {
+            return false;
+        }
+        session.lastAccessNanos = now;
+        return true;
+    }
+
+    // Username that owns a valid session, or null
+    public String getUsername(String sessionId) {
+        Session session = sessionId == null ? null : sessions.get(sessionId);
+        return session != null && isSessionValid(sessionId) ? session.username : null;
+    }
+
+    public void invalidateSession(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        Session session = sessions.remove(sessionId);
+        if (session != null) {
+            forget(session);
+            invalidated.incrementAndGet();
+        }
+    }
+
+    // End every session of a user, e.g. after a password change
+    public void invalidateUser(String username) {
+        List<Session> ended = new ArrayList<>();
+        sessionsByUser.computeIfPresent(username, (name, userSessions) -> {
+            ended.addAll(userSessions);
+            return null;
+        });
+        for (Session session : ended) {
+            if (sessions.remove(session.id, session)) {
+                invalidated.incrementAndGet();
+            }
+        }
+    }
+
+    public int getActiveCount() {
+        return sessions.size();
+    }
+
+    public void printStats() {
+        System.out.println("Sessions:");
+        System.out.println(" - Active: " + sessions.size());
+        System.out.println(" - Created: " + created.get());
+        System.out.println(" - Validations: " + validations.get());
+        System.out.println(" - Invalidated: " + invalidated.get());
+        System.out.println(" - Expired (Idle): " + expiredIdle.get());
+        System.out.println(" - Expired (Absolute): " + expiredAbsolute.get());
+        System.out.println(" - Evicted Over Per-User Cap: " + evictedOverCap.get());
+        System.out.println(" - Timing Wheel Visits: " + wheelVisits.get());
+    }
+
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    public long getExpiredCount() {
+        return expiredIdle.get() + expiredAbsolute.get();
+    }
+
+    public long getEvictedOverCapCount() {
+        return evictedOverCap.get();
+    }
+
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    // Process every wheel slot that has come due since the last tick
+    void advance() {
+        long dueTick = tickOf(System.nanoTime());
+        while (currentTick < dueTick) {
+            currentTick++;
+            int slot = (int) (currentTick % wheel.length());
+            ConcurrentLinkedQueue<Session> due = wheel.getAndSet(slot, new ConcurrentLinkedQueue<>());
+            long now = System.nanoTime();
+            for (Session session : due) {
+                wheelVisits.incrementAndGet();
+                if (sessions.get(session.id) != session) {
+                    continue; // Already invalidated or evicted
+                }
+                long scheduledTick = session.scheduledTick;
+                if (scheduledTick != currentTick) {
+                    if (scheduledTick > currentTick && scheduledTick % wheel.length() == slot) {
+                        wheel.get(slot).add(session); // Due in a later round of the wheel
+                    }
+                    continue; // Otherwise a stale copy; the session is queued in another slot
+                }
+                if (!expire(session, now)) {
+                    schedule(session, deadline(session)); // Still in use, or due in a later round
+                }
+            }
+        }
+    }
+
+    // Remove the session if it is past either deadline; returns true if it is expired
+    private boolean expire(Session session, long now) {
+        boolean absolute = now - session.createdAtNanos >= absoluteTtlNanos;
+        boolean idle = now - session.lastAccessNanos >= idleTtlNanos;
+        if (!absolute && !idle) {
+            return false;
+        }
+        if (sessions.remove(session.id, session)) {
+            forget(session);
+            (absolute ? expiredAbsolute : expiredIdle).incrementAndGet();
+        }
+        return true;
+    }
+
+    private long deadline(Session session) {
+        return Math.min(session.lastAccessNanos + idleTtlNanos, session.createdAtNanos + absoluteTtlNanos);
+    }
+
+    private void schedule(Session session, long deadlineNanos) {
+        // Round up so a session is never visited before its deadline
+        long tick = Math.max(tickOf(deadlineNanos + tickNanos - 1), currentTick + 1);
+        session.scheduledTick = tick;
+        wheel.get((int) (tick % wheel.length())).add(session);
+
+        // If the wheel reached that slot while we were adding, the session may have
+        // missed it; queue it again for the next tick (the stale copy is skipped)
+        if (tick <= currentTick) {
+            tick = currentTick + 1;
+            session.scheduledTick = tick;
+            wheel.get((int) (tick % wheel.length())).add(session);
+        }
+    }
+
+    private long tickOf(long nanos) {
+        return (nanos - startNanos) / tickNanos;
+    }
+
+    private void forget(Session session) {
+        sessionsByUser.computeIfPresent(session.username, (name, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    private static String newSessionId() {
+        byte[] bytes = new byte[18];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,93 @@
+package com.campuscent;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+
+// Outcome of a BudgetSimulation: how many students overspent their monthly
+// allocation, how often they went over on a single day, and the distribution
+// of the carryover left when the month closed. Amounts are in pesewas.
+public class SimulationReport {
+    private final YearMonth month;
+    private final int students;
+    private final long[] sortedCarryoverMinor;
+    private final int overspentStudents;
+    private final long totalOverspentMinor;
+    private final long overspentDays;
+    private final long elapsedMillis;
+
+    public SimulationReport(YearMonth month, long[] finalCarryoverMinor, long[] overspentMinor,
+                            int[] daysOverspent, long elapsedMillis) {
+        this.month = month;
+        this.students = finalCarryoverMinor.length;
+        this.sortedCarryoverMinor = finalCarryoverMinor.clone();
+        Arrays.parallelSort(sortedCarryoverMinor);
+
+        int overspent = 0;
+        long overspentTotal = 0;
+        long days = 0;
+        for (int i = 0; i < students; i++) {
+            if (overspentMinor[i] > 0) {
+                overspent++;
+                overspentTotal += overspentMinor[i];
+            }
+            days += daysOverspent[i];
+        }
+        this.overspentStudents = overspent;
+        this.totalOverspentMinor = overspentTotal;
+        this.overspentDays = days;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getStudents() {
+        return students;
+    }
+
+    // Fraction of students whose spending exceeded their monthly allocation
+    public double getOverspendRate() {
+        return students == 0 ? 0 : (double) overspentStudents / students;
+    }
+
+    // Average amount over the allocation, among students who overspent
+    public double getAverageOverspend() {
+        return overspentStudents == 0 ? 0 : FinancialEntry.fromMinorUnits(totalOverspentMinor) / overspentStudents;
+    }
+
+    // Fraction of student-days that ended over the day's effective limit
+    public double getOverspentDayRate() {
+        long studentDays = (long) students * month.lengthOfMonth();
+        return studentDays == 0 ? 0 : (double) overspentDays / studentDays;
+    }
+
+    // Carryover at the given percentile (0-100) of all students
+    public double getCarryoverPercentile(double percentile) {
+        if (students == 0) {
+            return 0;
+        }
+        int index = (int) Math.round(percentile / 100 * (students - 1));
+        return FinancialEntry.fromMinorUnits(sortedCarryoverMinor[Math.max(0, Math.min(students - 1, index))]);
+    }
+
+    public double getAverageCarryover() {
+        long total = 0;
+        for (long carryover : sortedCarryoverMinor) {
+            total += carryover;
+        }
+        return students == 0 ? 0 : FinancialEntry.fromMinorUnits(total) / students;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void print() {
+        System.out.println("Budget Simulation (" + month + "):");
+        System.out.println(" - Students: " + students + " (" + elapsedMillis + "ms)");
+        System.out.println(" - Overspent Monthly Allocation: " + String.format("%.1f", getOverspendRate() * 100) + "%"
+                + " (avg GHC" + String.format("%.2f", getAverageOverspend()) + " over)");
+        System.out.println(" - Days Over Daily Limit: " + String.format("%.1f", getOverspentDayRate() * 100) + "%");
+        System.out.println(" - Final Carryover: avg GHC" + String.format("%.2f", getAverageCarryover())
+                + ", p10 GHC" + String.format("%.2f", getCarryoverPercentile(10))
+                + ", median GHC" + String.format("%.2f", getCarryoverPercentile(50))
+                + ", p90 GHC" + String.format("%.2f", getCarryoverPercentile(90)));
+    }
+}
@@ -0,0 +1,169 @@
+package com.campuscent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// LRU cache of prepared statements for a single physical connection.
+// Statements are keyed by their SQL text, so the fixed queries in
+// DatabaseHelper are parsed and planned once per connection. The
+// statements handed out are proxies whose close() resets them for
+// the next caller instead of finalizing them.
+public class StatementCache {
+    private final Connection connection;
+    private final int maxSize;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    // Counters are shared by every cache of a pool so they can be reported together
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    public StatementCache(Connection connection, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    // Return a cached statement for this SQL, preparing it on first use
+    public PreparedStatement prepare(String sql) throws SQLException {
+        if (maxSize <= 0) {
+            misses.incrementAndGet();
+            return connection.prepareStatement(sql);
+        }
+
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.checkedOut && !cached.physical.isClosed()) {
+            hits.incrementAndGet();
+            cached.checkedOut = true;
+            return cached.proxy;
+        }
+
+        misses.incrementAndGet();
+        if (cached != null && cached.checkedOut) {
+            // Same SQL is already in use on this connection; hand out an uncached one
+            return connection.prepareStatement(sql);
+        }
+
+        cached = new CachedStatement(connection.prepareStatement(sql));
+        cached.checkedOut = true;
+        statements.put(sql, cached);
+        evictIfNeeded();
+        return cached.proxy;
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    // Close every cached statement, e.g. before the connection itself is closed
+    public void clear() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.physical);
+        }
+        statements.clear();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next().getValue();
+            if (eldest.checkedOut) {
+                continue; // Skip statements that are still being used
+            }
+            it.remove();
+            closeQuietly(eldest.physical);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.out.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    // Intercepts close() so the statement stays compiled for the next caller
+    private final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement physical;
+        private final PreparedStatement proxy;
+        private boolean checkedOut;
+        private ResultSet openResultSet;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxyObj, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (checkedOut) {
+                        reset();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return !checkedOut || physical.isClosed();
+                }
+                case "toString" -> {
+                    return "Cached" + physical;
+                }
+                case "equals" -> {
+                    return proxyObj == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxyObj);
+                }
+                default -> {
+                    if (!checkedOut) {
+                        throw new SQLException("Statement has already been closed.");
+                    }
+                    try {
+                        Object result = method.invoke(physical, args);
+                        if (result instanceof ResultSet) {
+                            openResultSet = (ResultSet) result;
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+
+        private void reset() throws SQLException {
+            checkedOut = false;
+            try {
+                // Callers do not always close their result sets, so finish them here
+                if (openResultSet != null) {
+                    openResultSet.close();
+                    openResultSet = null;
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                statements.values().remove(this);
+                closeQuietly(physical);
+            }
+        }
+    }
+}
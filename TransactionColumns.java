@@ -0,0 +1,210 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Columnar transaction history: one growable primitive array per field,
+// kept sorted by (epochDay, id). A row costs 22 bytes instead of an
+// Income/Expense object with its LocalDate, and scans over a date range
+// or category are tight loops that allocate nothing.
+// Not thread-safe; callers that share an instance must lock around it.
+public class TransactionColumns {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Category[] CATEGORIES = Category.values(); // values() copies the array on every call
+    private static final IncomeCategory[] INCOME_CATEGORIES = IncomeCategory.values();
+
+    private long[] ids;
+    private long[] amountMinor;
+    private int[] epochDay;
+    private byte[] typeCode;
+    private byte[] categoryCode;
+    private int size;
+
+    public TransactionColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TransactionColumns(int capacity) {
+        capacity = Math.max(capacity, 1);
+        ids = new long[capacity];
+        amountMinor = new long[capacity];
+        epochDay = new int[capacity];
+        typeCode = new byte[capacity];
+        categoryCode = new byte[capacity];
+    }
+
+    public void add(long id, FinancialEntry entry) {
+        int category = entry instanceof Expense
+                ? ((Expense) entry).getCategory().ordinal()
+                : ((Income) entry).getCategory().ordinal();
+        add(id, entry.getAmountMinor(), (int) entry.getDate().toEpochDay(), TransactionType.of(entry).ordinal(), category);
+    }
+
+    // Add a row; rows usually arrive in date order, so this is normally an append
+    public void add(long id, long amount, int day, int type, int category) {
+        if (size == ids.length) {
+            grow();
+        }
+
+        int pos = size;
+        if (size > 0 && (epochDay[size - 1] > day || (epochDay[size - 1] == day && ids[size - 1] > id))) {
+            pos = insertionPoint(day, id);
+            int moved = size - pos;
+            System.arraycopy(ids, pos, ids, pos + 1, moved);
+            System.arraycopy(amountMinor, pos, amountMinor, pos + 1, moved);
+            System.arraycopy(epochDay, pos, epochDay, pos + 1, moved);
+            System.arraycopy(typeCode, pos, typeCode, pos + 1, moved);
+            System.arraycopy(categoryCode, pos, categoryCode, pos + 1, moved);
+        }
+
+        ids[pos] = id;
+        amountMinor[pos] = amount;
+        epochDay[pos] = day;
+        typeCode[pos] = (byte) type;
+        categoryCode[pos] = (byte) category;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public long getAmountMinor(int index) {
+        return amountMinor[index];
+    }
+
+    public int getEpochDay(int index) {
+        return epochDay[index];
+    }
+
+    public int getTypeCode(int index) {
+        return typeCode[index];
+    }
+
+    public int getCategoryCode(int index) {
+        return categoryCode[index];
+    }
+
+    // Build an Income or Expense for one row (allocates; use the getters in hot loops)
+    public FinancialEntry toEntry(int index) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay[index]);
+        return typeCode[index] == TransactionType.EXPENSE.ordinal()
+                ? Expense.ofMinorUnits(amountMinor[index], date, CATEGORIES[categoryCode[index]])
+                : Income.ofMinorUnits(amountMinor[index], date, INCOME_CATEGORIES[categoryCode[index]]);
+    }
+
+    // Index of the first row dated on or after the given day
+    public int firstIndexFromDay(long day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDay[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Index just past the last row dated on or before the given day
+    public int endIndexThroughDay(long day) {
+        return day == Long.MAX_VALUE ? size : firstIndexFromDay(day + 1);
+    }
+
+    // Total in pesewas of rows of one type (and category, or -1 for all) between two days inclusive
+    public long sumAmount(TransactionType type, int category, long fromDay, long toDay) {
+        int wantedType = type.ordinal();
+        int end = endIndexThroughDay(toDay);
+        long total = 0;
+        for (int i = firstIndexFromDay(fromDay); i < end; i++) {
+            if (typeCode[i] == wantedType && (category < 0 || categoryCode[i] == category)) {
+                total += amountMinor[i];
+            }
+        }
+        return total;
+    }
+
+    // Add the pesewa totals of one type between two days into totals[categoryCode]
+    public void sumByCategory(TransactionType type, long fromDay, long toDay, long[] totals) {
+        int wantedType = type.ordinal();
+        int end = endIndexThroughDay(toDay);
+        for (int i = firstIndexFromDay(fromDay); i < end; i++) {
+            if (typeCode[i] == wantedType) {
+                totals[categoryCode[i]] += amountMinor[i];
+            }
+        }
+    }
+
+    // Reusable forward cursor over a date range; reset() it instead of creating a new one
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void grow() {
+        int capacity = size + (size >> 1) + 1;
+        ids = Arrays.copyOf(ids, capacity);
+        amountMinor = Arrays.copyOf(amountMinor, capacity);
+        epochDay = Arrays.copyOf(epochDay, capacity);
+        typeCode = Arrays.copyOf(typeCode, capacity);
+        categoryCode = Arrays.copyOf(categoryCode, capacity);
+    }
+
+    // Position where a row with this (day, id) keeps the arrays sorted
+    private int insertionPoint(int day, long id) {
+        int pos = firstIndexFromDay(day);
+        while (pos < size && epochDay[pos] == day && ids[pos] < id) {
+            pos++;
+        }
+        return pos;
+    }
+
+    public final class Cursor {
+        private int index;
+        private int end;
+
+        private Cursor() {
+            reset(Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        // Position before the first row dated between fromDay and toDay (inclusive)
+        public Cursor reset(long fromDay, long toDay) {
+            index = firstIndexFromDay(fromDay) - 1;
+            end = endIndexThroughDay(toDay);
+            return this;
+        }
+
+        public boolean next() {
+            return ++index < end;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public long id() {
+            return ids[index];
+        }
+
+        public long amountMinor() {
+            return amountMinor[index];
+        }
+
+        public int epochDay() {
+            return epochDay[index];
+        }
+
+        public int typeCode() {
+            return typeCode[index];
+        }
+
+        public int categoryCode() {
+            return categoryCode[index];
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+// One page of transactions plus the cursor needed to fetch the next page
+public class TransactionPage {
+    private final List<FinancialEntry> entries;
+    private final LocalDate lastDate;
+    private final long lastId;
+    private final boolean hasMore;
+
+    public TransactionPage(List<FinancialEntry> entries, LocalDate lastDate, long lastId, boolean hasMore) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.lastDate = lastDate;
+        this.lastId = lastId;
+        this.hasMore = hasMore;
+    }
+
+    public List<FinancialEntry> getEntries() {
+        return entries;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    // Continue the same query from the end of this page
+    public TransactionQuery nextPage(TransactionQuery query) {
+        return query.after(lastDate, lastId);
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+}
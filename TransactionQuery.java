@@ -0,0 +1,94 @@
+package com.campuscent;
+
+import java.time.LocalDate;
+
+// Filter and cursor for reading a user's transactions in date order.
+// Results are ordered by (date, id); passing the last (date, id) seen
+// to after() continues from that row without re-reading earlier pages.
+public class TransactionQuery {
+    private final String username;
+    private LocalDate from;
+    private LocalDate to;
+    private TransactionType type;
+    private int categoryCode = -1;
+    private LocalDate afterDate;
+    private long afterId;
+    private int limit;
+
+    public TransactionQuery(String username) {
+        this.username = username;
+    }
+
+    // Only include transactions dated between from and to (both inclusive)
+    public TransactionQuery between(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    public TransactionQuery ofType(TransactionType type) {
+        this.type = type;
+        return this;
+    }
+
+    public TransactionQuery inCategory(Category category) {
+        this.type = TransactionType.EXPENSE;
+        this.categoryCode = category.ordinal();
+        return this;
+    }
+
+    public TransactionQuery inCategory(IncomeCategory category) {
+        this.type = TransactionType.INCOME;
+        this.categoryCode = category.ordinal();
+        return this;
+    }
+
+    // Start after the row with this date and id (the keyset cursor)
+    public TransactionQuery after(LocalDate date, long id) {
+        this.afterDate = date;
+        this.afterId = id;
+        return this;
+    }
+
+    // Maximum number of rows to return; 0 means no limit
+    public TransactionQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative.");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    // Stored category code to match, or -1 for any category
+    public int getCategoryCode() {
+        return categoryCode;
+    }
+
+    public LocalDate getAfterDate() {
+        return afterDate;
+    }
+
+    public long getAfterId() {
+        return afterId;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
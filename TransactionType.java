@@ -0,0 +1,23 @@
+package com.campuscent;
+
+// Kind of row stored in the Transactions table. The ordinal is the stored
+// typeCode, so only add new values at the end.
+public enum TransactionType {
+    INCOME("Income"),
+    EXPENSE("Expense");
+
+    private final String label;
+
+    TransactionType(String label) {
+        this.label = label;
+    }
+
+    // Display name only; rows are stored by ordinal in the typeCode column
+    public String getLabel() {
+        return label;
+    }
+
+    public static TransactionType of(FinancialEntry entry) {
+        return entry instanceof Income ? INCOME : EXPENSE;
+    }
+}
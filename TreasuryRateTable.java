@@ -0,0 +1,273 @@
+package com.campuscent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Treasury bill rates by tenor and date, so an investment is valued at the
+// rate that was in force when it was made rather than today's. Rates come from
+// a local CSV file:
+//
+//   campuscent-rates,1
+//   # effective date, tenor in days, annual rate in percent
+//   2024-01-01,91,29.2000
+//   2024-01-01,182,31.1000
+//
+// The first line names the format and its version. Each row gives the rate
+// that applies from its date until the next row for the same tenor. The file
+// is parsed once into one dense array per tenor with an entry for every day,
+// so a lookup is an array index. Dates after the last row use the last rate.
+//
+// Without a file the built-in rates (the ones getRateForPeriod used to
+// hardcode) apply to every date. When the file has no rate for today for one
+// of the tenors InvestmentManager offers, the built-in rate for that tenor is
+// merged in ahead of the file's rows, with a warning when the file is loaded.
+public class TreasuryRateTable {
+    public static final String FORMAT = "campuscent-rates";
+    public static final int FORMAT_VERSION = 1;
+    public static final String DEFAULT_FILE = "treasury_rates.csv";
+    private static final int[] MENU_TENORS = {91, 182, 364}; // The choices in InvestmentManager
+
+    private static volatile TreasuryRateTable shared;
+
+    private final int[] tenors; // Sorted tenor lengths in days
+    private final int originDay; // Epoch day of the earliest row
+    private final double[][] ratesByDay; // [tenor index][day - originDay]; NaN before the tenor's first row
+
+    private TreasuryRateTable(int[] tenors, int originDay, double[][] ratesByDay) {
+        this.tenors = tenors;
+        this.originDay = originDay;
+        this.ratesByDay = ratesByDay;
+    }
+
+    // Table used by InvestmentManager. Loaded on first use from the file named
+    // by the campuscent.rates.file system property, or treasury_rates.csv in
+    // the working directory, falling back to the built-in rates.
+    public static TreasuryRateTable shared() {
+        TreasuryRateTable table = shared;
+        if (table == null) {
+            synchronized (TreasuryRateTable.class) {
+                table = shared;
+                if (table == null) {
+                    table = loadOrDefault(Paths.get(System.getProperty("campuscent.rates.file", DEFAULT_FILE)));
+                    shared = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    public static void setShared(TreasuryRateTable table) {
+        shared = table;
+    }
+
+    public static TreasuryRateTable defaults() {
+        return build(defaultRows(0));
+    }
+
+    // The built-in rates, effective from the given day
+    private static List<Row> defaultRows(int day) {
+        List<Row> rows = new ArrayList<>();
+        rows.add(new Row(day, 91, 26.8293));
+        rows.add(new Row(day, 182, 27.7876));
+        rows.add(new Row(day, 364, 29.2178));
+        return rows;
+    }
+
+    public static TreasuryRateTable loadOrDefault(Path file) {
+        if (!Files.exists(file)) {
+            return defaults();
+        }
+        List<Row> rows;
+        try {
+            rows = readRows(file);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not load treasury rates from " + file + " (" + e.getMessage() + "). Using built-in rates.");
+            return defaults();
+        }
+
+        // Menu tenors the file doesn't cover today get the built-in rate from the
+        // file's first date (or today) until the file's own rows take over
+        TreasuryRateTable table = build(rows);
+        LocalDate today = LocalDate.now();
+        List<Row> merged = new ArrayList<>(rows);
+        for (Row fallback : defaultRows((int) Math.min(table.originDay, today.toEpochDay()))) {
+            if (Arrays.binarySearch(MENU_TENORS, fallback.tenor) >= 0 && !table.hasRate(fallback.tenor, today)) {
+                System.out.println("Treasury rates in " + file + " have no " + fallback.tenor + "-day rate for " + today
+                        + ". Using the built-in " + fallback.rate + "%"
+                        + (table.hasTenor(fallback.tenor) ? " until the file's first " + fallback.tenor + "-day rate." : "."));
+                merged.add(fallback);
+            }
+        }
+        return merged.size() == rows.size() ? table : build(merged);
+    }
+
+    public static TreasuryRateTable load(Path file) throws IOException {
+        return build(readRows(file));
+    }
+
+    private static List<Row> readRows(Path file) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            checkHeader(reader.readLine());
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                rows.add(parseRow(line, lineNumber));
+            }
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("no rates in file");
+        }
+        return rows;
+    }
+
+    private static void checkHeader(String header) {
+        String[] parts = header == null ? new String[0] : header.trim().split(",");
+        if (parts.length != 2 || !parts[0].trim().equals(FORMAT)) {
+            throw new IllegalArgumentException("missing " + FORMAT + " header");
+        }
+        int version;
+        try {
+            version = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad format version '" + parts[1].trim() + "'");
+        }
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported format version " + version);
+        }
+    }
+
+    private static Row parseRow(String line, int lineNumber) {
+        String[] fields = line.split(",");
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("line " + lineNumber + " should have 3 fields");
+        }
+        try {
+            int day = (int) LocalDate.parse(fields[0].trim()).toEpochDay();
+            int tenor = Integer.parseInt(fields[1].trim());
+            double rate = Double.parseDouble(fields[2].trim());
+            if (tenor <= 0 || rate < 0 || Double.isNaN(rate)) {
+                throw new IllegalArgumentException("line " + lineNumber + " has an invalid tenor or rate");
+            }
+            return new Row(day, tenor, rate);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("line " + lineNumber + " could not be parsed");
+        }
+    }
+
+    private static TreasuryRateTable build(List<Row> rows) {
+        rows.sort((a, b) -> Integer.compare(a.day, b.day)); // Stable, so a later duplicate row wins
+        int originDay = rows.get(0).day;
+        int lastDay = rows.get(rows.size() - 1).day;
+        int[] tenors = rows.stream().mapToInt(row -> row.tenor).distinct().sorted().toArray();
+
+        double[][] ratesByDay = new double[tenors.length][lastDay - originDay + 1];
+        for (double[] rates : ratesByDay) {
+            Arrays.fill(rates, Double.NaN);
+        }
+        // Each row sets its own day; the gaps are then filled forward per tenor
+        for (Row row : rows) {
+            ratesByDay[Arrays.binarySearch(tenors, row.tenor)][row.day - originDay] = row.rate;
+        }
+        for (double[] rates : ratesByDay) {
+            for (int i = 1; i < rates.length; i++) {
+                if (Double.isNaN(rates[i])) {
+                    rates[i] = rates[i - 1];
+                }
+            }
+        }
+        return new TreasuryRateTable(tenors, originDay, ratesByDay);
+    }
+
+    // Annual rate in percent for a tenor on a date
+    public double getRate(int tenorDays, LocalDate date) {
+        return getRate(tenorDays, date.toEpochDay());
+    }
+
+    public double getRate(int tenorDays, long epochDay) {
+        int index = tenorIndex(tenorDays);
+        double[] rates = ratesByDay[index];
+        long offset = Math.min(epochDay - originDay, rates.length - 1);
+        double rate = offset < 0 ? Double.NaN : rates[(int) offset];
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("No " + tenorDays + "-day rate on file for " + LocalDate.ofEpochDay(epochDay) + ".");
+        }
+        return rate;
+    }
+
+    // Batch form of getRate for projections: out[i] is the rate for
+    // tenorDays[i] on epochDays[i]
+    public void ratesOn(int[] tenorDays, int[] epochDays, double[] out) {
+        if (epochDays.length != tenorDays.length || out.length != tenorDays.length) {
+            throw new IllegalArgumentException("All rate columns must have the same length.");
+        }
+        for (int i = 0; i < tenorDays.length; i++) {
+            out[i] = getRate(tenorDays[i], epochDays[i]);
+        }
+    }
+
+    // Whether getRate would return a rate rather than throw
+    public boolean hasRate(int tenorDays, LocalDate date) {
+        int index = Arrays.binarySearch(tenors, tenorDays);
+        if (index < 0) {
+            return false;
+        }
+        double[] rates = ratesByDay[index];
+        long offset = Math.min(date.toEpochDay() - originDay, rates.length - 1);
+        return offset >= 0 && !Double.isNaN(rates[(int) offset]);
+    }
+
+    public boolean hasTenor(int tenorDays) {
+        return Arrays.binarySearch(tenors, tenorDays) >= 0;
+    }
+
+    public int[] getTenors() {
+        return tenors.clone();
+    }
+
+    private int tenorIndex(int tenorDays) {
+        int index = Arrays.binarySearch(tenors, tenorDays);
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid period. Use " + describeTenors() + " days.");
+        }
+        return index;
+    }
+
+    // "91, 182, or 364"
+    private String describeTenors() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tenors.length; i++) {
+            if (i > 0) {
+                text.append(i == tenors.length - 1 ? (tenors.length > 2 ? ", or " : " or ") : ", ");
+            }
+            text.append(tenors[i]);
+        }
+        return text.toString();
+    }
+
+    private static final class Row {
+        final int day;
+        final int tenor;
+        final double rate;
+
+        Row(int day, int tenor, double rate) {
+            this.day = day;
+            this.tenor = tenor;
+            this.rate = rate;
+        }
+    }
+}
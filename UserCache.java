@@ -0,0 +1,164 @@
+package com.campuscent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Bounded cache of user records (username -> password hash) in front of the
+// Users table. Entries expire after a TTL and the least recently used entry
+// is evicted when full. Unknown usernames are cached too, for a shorter time,
+// so repeated failed logins do not reach the database. Concurrent misses for
+// the same username share one load. A new User is built for every lookup, as
+// User objects carry per-session state.
+public class UserCache {
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    public static final long DEFAULT_TTL_MS = 5 * 60 * 1000;
+    public static final long DEFAULT_NEGATIVE_TTL_MS = 30 * 1000;
+
+    private static final class Entry {
+        final String hashedPassword; // Null for a username known not to exist
+        final long expiresAtNanos;
+
+        Entry(String hashedPassword, long expiresAtNanos) {
+            this.hashedPassword = hashedPassword;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+    private long generation; // Bumped by every invalidation, guarded by entries
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public UserCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL_MS, DEFAULT_NEGATIVE_TTL_MS);
+    }
+
+    public UserCache(int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000;
+    }
+
+    // Return the user, loading the password hash with loader on a miss. The loader
+    // returns null for an unknown username, which is then cached as absent.
+    public User get(String username, Function<String, String> loader) {
+        if (maxSize <= 0) {
+            misses.incrementAndGet();
+            return toUser(username, loader.apply(username));
+        }
+
+        long startGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null) {
+                if (entry.expiresAtNanos - System.nanoTime() > 0) {
+                    (entry.hashedPassword == null ? negativeHits : hits).incrementAndGet();
+                    return toUser(username, entry.hashedPassword);
+                }
+                entries.remove(username);
+                expirations.incrementAndGet();
+            }
+            startGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        CompletableFuture<String> load = new CompletableFuture<>();
+        CompletableFuture<String> inFlight = loading.putIfAbsent(username, load);
+        if (inFlight != null) {
+            return toUser(username, inFlight.join()); // Another thread is already querying this user
+        }
+
+        try {
+            String hashedPassword = loader.apply(username);
+            put(username, hashedPassword, startGeneration);
+            load.complete(hashedPassword);
+            return toUser(username, hashedPassword);
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(username, load);
+        }
+    }
+
+    // Drop a username after it is added or its password changes
+    public void invalidate(String username) {
+        synchronized (entries) {
+            entries.remove(username);
+            generation++;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getNegativeHits() {
+        return negativeHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    // Percentage of lookups answered without a query, counting cached unknown users
+    public double getHitRate() {
+        long answered = hits.get() + negativeHits.get();
+        long total = answered + misses.get();
+        return total == 0 ? 0 : (answered * 100.0) / total;
+    }
+
+    private void put(String username, String hashedPassword, long startGeneration) {
+        long ttl = hashedPassword == null ? negativeTtlNanos : ttlNanos;
+        synchronized (entries) {
+            if (generation != startGeneration) {
+                return; // Invalidated while loading; the loaded value may be stale
+            }
+            entries.put(username, new Entry(hashedPassword, System.nanoTime() + ttl));
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (entries.size() > maxSize && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static User toUser(String username, String hashedPassword) {
+        return hashedPassword == null ? null : new User(username, hashedPassword);
+    }
+}
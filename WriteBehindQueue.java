@@ -0,0 +1,218 @@
+package com.campuscent;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Queues inserts and writes them on a single background thread. Pending writes
+// are grouped into one SQLite transaction (one fsync) per batch. When the queue
+// is full, submit() blocks the caller until the writer catches up. Every write
+// returns a future that completes once its row has been committed, or fails;
+// no future is left pending, even after close().
+public class WriteBehindQueue implements AutoCloseable {
+
+    // A single insert to run against the writer's connection
+    @FunctionalInterface
+    public interface Write {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final class PendingWrite {
+        private final Write write;
+        private final CompletableFuture<Void> done;
+
+        PendingWrite(Write write, CompletableFuture<Void> done) {
+            this.write = write;
+            this.done = done;
+        }
+    }
+
+    private static final long IDLE_POLL_MILLIS = 100; // How often an idle writer checks for close()
+
+    private final ConnectionPool pool;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int maxBatchSize;
+    private final Thread writer;
+    private volatile boolean closed = false;
+    // Enqueuers hold the read lock while checking closed and adding, and close() takes
+    // the write lock to set closed, so no write can slip in after the writer has finished
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+
+    public WriteBehindQueue(ConnectionPool pool, int capacity, int maxBatchSize) {
+        if (capacity < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Queue capacity and batch size must be at least 1.");
+        }
+        this.pool = pool;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.writer = new Thread(this::run, "campuscent-db-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Queue a write, waiting for space if the queue is full
+    public CompletableFuture<Void> submit(Write write) {
+        if (write == null) {
+            throw new IllegalArgumentException("Write cannot be null.");
+        }
+        return enqueue(write);
+    }
+
+    // Wait until everything submitted so far has been committed
+    public void flush() {
+        try {
+            enqueue(null).join(); // A null write is a marker that only waits for its batch to commit
+        } catch (RuntimeException e) {
+            // The marker only fails if the queue was closed; nothing left to wait for
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Write write) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        gate.readLock().lock();
+        try {
+            if (closed) {
+                done.completeExceptionally(new IllegalStateException("Write-behind queue is closed."));
+                return done;
+            }
+            queue.put(new PendingWrite(write, done)); // The writer keeps draining, so close() waits at most this long
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done.completeExceptionally(e);
+        } finally {
+            gate.readLock().unlock();
+        }
+        return done;
+    }
+
+    // Stop accepting writes, commit whatever is pending and stop the writer thread
+    @Override
+    public void close() {
+        gate.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            gate.writeLock().unlock();
+        }
+
+        // The writer empties the queue and then exits on its own; nothing is put here,
+        // so a full queue cannot block close()
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Only left over if the writer did not finish in time
+        List<PendingWrite> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        failAll(leftover, new IllegalStateException("Write-behind queue closed before the write was applied."));
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getCommitCount() {
+        return commits.get();
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+
+        while (true) {
+            PendingWrite first;
+            try {
+                first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) {
+                if (closed) {
+                    break; // Closed and everything queued before it has been written
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatchSize - 1);
+
+            try {
+                writeBatch(batch);
+            } catch (Throwable t) {
+                // Never let one bad batch stop the writer; fail whatever it left pending
+                System.out.println("Error writing queued records: " + t);
+                failAll(batch, t);
+            }
+            batch.clear();
+        }
+    }
+
+    private void failAll(List<PendingWrite> writes, Throwable cause) {
+        for (PendingWrite pending : writes) {
+            if (pending.done.completeExceptionally(cause) && pending.write != null) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        List<PendingWrite> applied = new ArrayList<>(batch.size());
+
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (PendingWrite pending : batch) {
+                    try {
+                        if (pending.write != null) {
+                            pending.write.apply(conn);
+                        }
+                        applied.add(pending);
+                    } catch (SQLException | RuntimeException e) {
+                        // A failed statement is undone on its own; the rest of the batch still commits
+                        failed.incrementAndGet();
+                        pending.done.completeExceptionally(e);
+                        System.out.println("Error writing queued record: " + e.getMessage());
+                    }
+                }
+                conn.commit();
+                commits.incrementAndGet();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error committing queued records: " + e.getMessage());
+            // Nothing in the batch was committed; futures that already failed are left as they are
+            failAll(batch, e);
+            return;
+        }
+
+        for (PendingWrite pending : applied) {
+            if (pending.write != null) {
+                written.incrementAndGet();
+            }
+            pending.done.complete(null);
+        }
+    }
+}